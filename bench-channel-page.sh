@@ -0,0 +1,72 @@
+#!/bin/bash
+
+# Compare channel page latency with and without the concurrent fan-out
+# Usage: ./bench-channel-page.sh [username] [requests]
+#
+# Starts the packaged app twice, once with app.channels.fan-out=false and once with true, warms
+# it up, then requests /api/channels/{username} the given number of times and prints median and
+# p95 latency per strategy. Point it at a populated PostgreSQL database with the DB_NAME,
+# DB_USERNAME and DB_PASSWORD the app reads; they default to the postgres service from
+# docker-compose.yml on localhost:5432. The user must exist.
+
+set -e
+
+USERNAME=${1:-demo}
+REQUESTS=${2:-500}
+WARMUP=${WARMUP:-100}
+PORT=${PORT:-8080}
+export DB_NAME=${DB_NAME:-youtube_db}
+export DB_USERNAME=${DB_USERNAME:-postgres}
+export DB_PASSWORD=${DB_PASSWORD:-postgres}
+DIR="$(cd "$(dirname "$0")" && pwd)"
+JAR=$(ls "${DIR}"/target/youtube-app-*.jar 2>/dev/null | grep -v original | head -n 1)
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+URL="http://localhost:${PORT}/api/channels/${USERNAME}"
+
+if [ -z "$JAR" ]; then
+    echo "Error: no jar in ${DIR}/target. Run 'mvn package' first."
+    exit 1
+fi
+
+run_strategy() {
+    local label=$1 fan_out=$2
+    "$JAVA" -jar "$JAR" --server.port="$PORT" --app.channels.fan-out="$fan_out" > /dev/null 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null" EXIT
+
+    until curl -s -o /dev/null "http://localhost:${PORT}/actuator/health"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Error: app exited during startup"
+            exit 1
+        fi
+        sleep 1
+    done
+
+    if [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" != "200" ]; then
+        echo "Error: $URL did not return 200; does user '${USERNAME}' exist?"
+        kill "$pid"
+        exit 1
+    fi
+
+    for i in $(seq 1 "$WARMUP"); do
+        curl -s -o /dev/null "$URL"
+    done
+
+    for i in $(seq 1 "$REQUESTS"); do
+        curl -s -o /dev/null -w '%{time_total}\n' "$URL"
+    done | sort -n | awk -v label="$label" '
+        { ms[NR] = $1 * 1000 }
+        END {
+            median = NR % 2 ? ms[(NR + 1) / 2] : (ms[NR / 2] + ms[NR / 2 + 1]) / 2
+            p95 = ms[int(NR * 0.95 + 0.5) > 0 ? int(NR * 0.95 + 0.5) : 1]
+            printf "%-12s median %7.2f ms  p95 %7.2f ms  (%d requests)\n", label, median, p95, NR
+        }'
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+echo "Channel page for ${USERNAME}, ${REQUESTS} requests per strategy after ${WARMUP} warm-up"
+run_strategy "sequential" false
+run_strategy "fan-out" true
@@ -0,0 +1,49 @@
+#!/bin/bash
+
+# Run the JMH suites and compare them against the stored baseline
+# Usage: ./run.sh [save] [JMH options...]
+#
+#   ./run.sh                      run everything, compare with baseline.json if there is one
+#   ./run.sh VideoRepository      run matching benchmarks only (any JMH option works)
+#   ./run.sh save                 run everything and store the result as the new baseline
+#
+# Results are written to results.json. The comparison fails (exit 1) when a benchmark is slower
+# than the baseline by more than THRESHOLD percent (default 10) and its error margin. Baselines
+# only mean something on the machine that recorded them, so record one before comparing.
+
+set -e
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+JAR="${DIR}/target/benchmarks.jar"
+RESULTS="${DIR}/results.json"
+BASELINE="${DIR}/baseline.json"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+SAVE=false
+if [ "$1" = "save" ]; then
+    SAVE=true
+    shift
+fi
+
+if [ ! -f "$JAR" ]; then
+    echo "Error: $JAR not found. Run 'mvn package' in benchmarks first."
+    exit 1
+fi
+
+# The Lambda handlers read their settings from the environment, which the JMH forks inherit
+export DB_URL=${DB_URL:-"jdbc:h2:mem:lambda;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE"}
+export DB_USERNAME=${DB_USERNAME:-sa}
+export DB_PASSWORD=${DB_PASSWORD:-}
+export BCRYPT_STRENGTH=${BCRYPT_STRENGTH:-10}
+export LAMBDA_PRIMING=${LAMBDA_PRIMING:-false}
+
+"$JAVA" -jar "$JAR" -rf json -rff "$RESULTS" "$@"
+
+if [ "$SAVE" = true ]; then
+    cp "$RESULTS" "$BASELINE"
+    echo "Saved baseline to $BASELINE"
+elif [ -f "$BASELINE" ]; then
+    "$JAVA" -cp "$JAR" com.youtube.benchmarks.CompareBaseline "$RESULTS" "$BASELINE" "${THRESHOLD:-10}"
+else
+    echo "No baseline to compare against; run './run.sh save' to record one."
+fi
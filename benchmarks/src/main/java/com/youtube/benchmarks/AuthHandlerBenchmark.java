@@ -0,0 +1,85 @@
+package com.youtube.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.youtube.lambda.auth.AuthHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm invocations of the auth Lambda, routing and JSON included. Login time is dominated by
+ * BCrypt, so it scales with {@code BCRYPT_STRENGTH}; see {@link PasswordEncoderBenchmark} for the
+ * cost curve on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthHandlerBenchmark {
+
+    private AuthHandler handler;
+
+    private APIGatewayProxyRequestEvent login;
+    private APIGatewayProxyRequestEvent badLogin;
+    private APIGatewayProxyRequestEvent checkTaken;
+    private APIGatewayProxyRequestEvent checkFree;
+
+    @Setup
+    public void setUp() throws Exception {
+        LambdaDatabase.createSchema();
+        // Hashed at the handler's own cost, so a login never triggers a rehash
+        String strength = System.getenv().getOrDefault("BCRYPT_STRENGTH", "10");
+        LambdaDatabase.seedUser("bench", new BCryptPasswordEncoder(Integer.parseInt(strength)).encode("benchmark"));
+        handler = new AuthHandler();
+
+        login = LambdaDatabase.request("POST", "/auth/login", "{\"username\":\"bench\",\"password\":\"benchmark\"}", null);
+        badLogin = LambdaDatabase.request("POST", "/auth/login", "{\"username\":\"bench\",\"password\":\"wrong-password\"}", null);
+        checkTaken = LambdaDatabase.request("GET", "/auth/check", null, Map.of("username", "bench"));
+        checkFree = LambdaDatabase.request("GET", "/auth/check", null, Map.of("username", "nobody-has-this-name"));
+        expect(200, login);
+        expect(400, badLogin);
+        expect(200, checkTaken);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent login() {
+        return handler.handleRequest(login, BenchmarkContext.INSTANCE);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent loginWrongPassword() {
+        return handler.handleRequest(badLogin, BenchmarkContext.INSTANCE);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent checkTakenUsername() {
+        return handler.handleRequest(checkTaken, BenchmarkContext.INSTANCE);
+    }
+
+    // Answered by the username filter without a query
+    @Benchmark
+    public APIGatewayProxyResponseEvent checkFreeUsername() {
+        return handler.handleRequest(checkFree, BenchmarkContext.INSTANCE);
+    }
+
+    private void expect(int status, APIGatewayProxyRequestEvent request) {
+        APIGatewayProxyResponseEvent response = handler.handleRequest(request, BenchmarkContext.INSTANCE);
+        if (response.getStatusCode() != status) {
+            throw new IllegalStateException(request.getPath() + " returned " + response.getStatusCode() + ": " + response.getBody());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.youtube.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+/**
+ * The Lambda runtime context handed to handlers under measurement. Its logger drops everything,
+ * so console output does not end up in the timings.
+ */
+final class BenchmarkContext implements Context {
+
+    static final BenchmarkContext INSTANCE = new BenchmarkContext();
+
+    private static final LambdaLogger SILENT = new LambdaLogger() {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void log(byte[] message) {
+        }
+    };
+
+    private BenchmarkContext() {}
+
+    @Override
+    public String getAwsRequestId() { return "benchmark"; }
+
+    @Override
+    public String getLogGroupName() { return "benchmark"; }
+
+    @Override
+    public String getLogStreamName() { return "benchmark"; }
+
+    @Override
+    public String getFunctionName() { return "benchmark"; }
+
+    @Override
+    public String getFunctionVersion() { return "$LATEST"; }
+
+    @Override
+    public String getInvokedFunctionArn() { return "benchmark"; }
+
+    @Override
+    public CognitoIdentity getIdentity() { return null; }
+
+    @Override
+    public ClientContext getClientContext() { return null; }
+
+    @Override
+    public int getRemainingTimeInMillis() { return 30_000; }
+
+    @Override
+    public int getMemoryLimitInMB() { return 512; }
+
+    @Override
+    public LambdaLogger getLogger() { return SILENT; }
+}
@@ -0,0 +1,94 @@
+package com.youtube.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file against a stored baseline and exits non-zero if any benchmark
+ * got slower by more than the threshold, or by more than its own error margin if that is larger.
+ * Benchmarks missing from either file are listed but never fail the run.
+ * <p>
+ * Usage: {@code CompareBaseline <results.json> <baseline.json> [threshold-percent]}
+ */
+public final class CompareBaseline {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+    private static final String PACKAGE = CompareBaseline.class.getPackageName() + ".";
+
+    private CompareBaseline() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareBaseline <results.json> <baseline.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        Map<String, Score> current = read(new File(args[0]));
+        Map<String, Score> baseline = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-55s %16s %16s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit().equals(now.unit())) {
+                System.out.printf("%-55s %16s %16s %9s%n", entry.getKey(), "-", now.format(), "new");
+                continue;
+            }
+
+            double change = (now.value() - before.value()) / before.value() * 100;
+            // Throughput modes report ops per time, where a lower score is the regression
+            double slowdown = now.higherIsBetter() ? -change : change;
+            double noise = (now.error() + before.error()) / before.value() * 100;
+            boolean regressed = slowdown > Math.max(threshold, noise);
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-55s %16s %16s %+8.1f%%%s%n", entry.getKey(), before.format(), now.format(), change,
+                regressed ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-55s %16s %16s %9s%n", name, baseline.get(name).format(), "-", "not run");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String benchmark = run.path("benchmark").asText();
+            StringBuilder name = new StringBuilder(benchmark.startsWith(PACKAGE) ? benchmark.substring(PACKAGE.length()) : benchmark);
+            run.path("params").fields().forEachRemaining(param ->
+                name.append(':').append(param.getKey()).append('=').append(param.getValue().asText()));
+
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(name.toString(), new Score(
+                metric.path("score").asDouble(),
+                Double.isNaN(error) ? 0 : error,
+                metric.path("scoreUnit").asText(),
+                "thrpt".equals(run.path("mode").asText())
+            ));
+        }
+        return scores;
+    }
+
+    private record Score(double value, double error, String unit, boolean higherIsBetter) {
+
+        String format() {
+            return String.format("%.3f %s", value, unit);
+        }
+    }
+}
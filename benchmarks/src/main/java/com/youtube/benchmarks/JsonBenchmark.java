@@ -0,0 +1,81 @@
+package com.youtube.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.youtube.app.dto.RegisterRequest;
+import com.youtube.lambda.auth.dto.LoginRequest;
+import com.youtube.lambda.auth.dto.LoginResponse;
+import com.youtube.lambda.user.dto.PublicProfileResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson reading request bodies and writing response bodies, with readers and writers bound up
+ * front the way the handlers hold them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final String REGISTER_JSON =
+        "{\"username\":\"bench\",\"email\":\"bench@example.com\",\"password\":\"benchmark\"}";
+    private static final String LOGIN_JSON = "{\"username\":\"bench\",\"password\":\"benchmark\"}";
+
+    private ObjectReader registerReader;
+    private ObjectReader loginReader;
+    private ObjectWriter loginWriter;
+    private ObjectWriter profileWriter;
+
+    private LoginResponse loginResponse;
+    private PublicProfileResponse profileResponse;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        registerReader = mapper.readerFor(RegisterRequest.class);
+        loginReader = mapper.readerFor(LoginRequest.class);
+        loginWriter = mapper.writerFor(LoginResponse.class);
+        profileWriter = mapper.writerFor(PublicProfileResponse.class);
+
+        loginResponse = new LoginResponse("Login successful", 42L, "bench", "bench@example.com");
+        profileResponse = new PublicProfileResponse(42L, "bench", "Bench Mark", "https://example.com/bench.png",
+            LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    @Benchmark
+    public RegisterRequest readRegisterRequest() throws Exception {
+        return registerReader.readValue(REGISTER_JSON);
+    }
+
+    @Benchmark
+    public LoginRequest readLoginRequest() throws Exception {
+        return loginReader.readValue(LOGIN_JSON);
+    }
+
+    @Benchmark
+    public String writeLoginResponse() throws Exception {
+        return loginWriter.writeValueAsString(loginResponse);
+    }
+
+    @Benchmark
+    public String writePublicProfile() throws Exception {
+        return profileWriter.writeValueAsString(profileResponse);
+    }
+}
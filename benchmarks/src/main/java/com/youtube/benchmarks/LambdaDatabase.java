@@ -0,0 +1,90 @@
+package com.youtube.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * The database the Lambda handlers talk to. They read {@code DB_URL} from the environment, which
+ * JMH forks inherit, so {@code run.sh} points it at an in-memory H2 database in PostgreSQL mode;
+ * this creates the {@code users} table there before a handler is constructed.
+ */
+final class LambdaDatabase {
+
+    private static final String CREATE_USERS =
+        "CREATE TABLE IF NOT EXISTS users (" +
+        "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+        "username VARCHAR(50) NOT NULL UNIQUE, " +
+        "email VARCHAR(255) NOT NULL UNIQUE, " +
+        "password VARCHAR(255) NOT NULL, " +
+        "display_name VARCHAR(255), " +
+        "profile_image_url VARCHAR(255), " +
+        "created_at TIMESTAMP, " +
+        "updated_at TIMESTAMP)";
+
+    private static final String SELECT_USER_ID = "SELECT id FROM users WHERE username = ?";
+    private static final String INSERT_USER =
+        "INSERT INTO users (username, email, password, display_name, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private LambdaDatabase() {}
+
+    static void createSchema() throws SQLException {
+        String url = System.getenv("DB_URL");
+        if (url == null || !url.startsWith("jdbc:h2:mem:")) {
+            throw new IllegalStateException("DB_URL must name an in-memory H2 database; run the suite through run.sh");
+        }
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_USERS);
+        }
+    }
+
+    /**
+     * Inserts the user unless it is already there, and returns its id. Registration is not driven
+     * through the handler because its {@code INSERT ... RETURNING} has no H2 equivalent.
+     */
+    static long seedUser(String username, String passwordHash) throws SQLException {
+        try (Connection connection = connect()) {
+            try (PreparedStatement select = connection.prepareStatement(SELECT_USER_ID)) {
+                select.setString(1, username);
+                try (ResultSet existing = select.executeQuery()) {
+                    if (existing.next()) {
+                        return existing.getLong(1);
+                    }
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_USER, new String[] {"id"})) {
+                insert.setString(1, username);
+                insert.setString(2, username + "@example.com");
+                insert.setString(3, passwordHash);
+                insert.setString(4, username);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    return keys.getLong(1);
+                }
+            }
+        }
+    }
+
+    static Connection connect() throws SQLException {
+        return DriverManager.getConnection(System.getenv("DB_URL"), System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"));
+    }
+
+    static APIGatewayProxyRequestEvent request(String method, String path, String body, Map<String, String> query) {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        event.setHttpMethod(method);
+        event.setPath(path);
+        event.setBody(body);
+        event.setHeaders(Map.of("Authorization", "Bearer benchmark", "Content-Type", "application/json"));
+        event.setQueryStringParameters(query);
+        return event;
+    }
+}
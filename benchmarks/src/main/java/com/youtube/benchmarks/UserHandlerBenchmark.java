@@ -0,0 +1,72 @@
+package com.youtube.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.youtube.lambda.user.UserHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm invocations of the user Lambda: one indexed lookup plus serializing the profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserHandlerBenchmark {
+
+    private UserHandler handler;
+
+    private APIGatewayProxyRequestEvent publicProfile;
+    private APIGatewayProxyRequestEvent ownProfile;
+    private APIGatewayProxyRequestEvent unknownUser;
+
+    @Setup
+    public void setUp() throws Exception {
+        LambdaDatabase.createSchema();
+        long userId = LambdaDatabase.seedUser("viewer", "unused");
+        handler = new UserHandler();
+
+        publicProfile = LambdaDatabase.request("GET", "/users/viewer", null, null);
+        ownProfile = LambdaDatabase.request("GET", "/users/profile", null, Map.of("userId", Long.toString(userId)));
+        unknownUser = LambdaDatabase.request("GET", "/users/nobody-has-this-name", null, null);
+        expect(200, publicProfile);
+        expect(200, ownProfile);
+        expect(404, unknownUser);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent publicProfile() {
+        return handler.handleRequest(publicProfile, BenchmarkContext.INSTANCE);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent ownProfile() {
+        return handler.handleRequest(ownProfile, BenchmarkContext.INSTANCE);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent unknownUser() {
+        return handler.handleRequest(unknownUser, BenchmarkContext.INSTANCE);
+    }
+
+    private void expect(int status, APIGatewayProxyRequestEvent request) {
+        APIGatewayProxyResponseEvent response = handler.handleRequest(request, BenchmarkContext.INSTANCE);
+        if (response.getStatusCode() != status) {
+            throw new IllegalStateException(request.getPath() + " returned " + response.getStatusCode() + ": " + response.getBody());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.youtube.benchmarks;
+
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.VideoRepository;
+import com.youtube.app.repository.projection.VideoSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * The keyset listings behind the home page, trending, channel pages and search results, run
+ * through Hibernate against H2 in PostgreSQL mode. Only JPA and the repositories are started, so
+ * the schedulers and caches of the full application stay out of the numbers.
+ * <p>
+ * H2 is not PostgreSQL: treat these as a check on query shape and mapping overhead between
+ * commits, not as production latencies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Hibernate's query path is long and takes a while to compile
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VideoRepositoryBenchmark {
+
+    private static final int USERS = 100;
+    private static final int VIDEOS = 20_000;
+    private static final Pageable PAGE = PageRequest.ofSize(21);
+    // First-page cursor, as VideoService uses; timestamp columns cannot hold LocalDateTime.MAX
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final String SEED_USERS =
+        "INSERT INTO users (username, email, password, display_name, created_at, updated_at, is_enabled) " +
+        "SELECT 'user' || x, 'user' || x || '@example.com', 'unused', 'User ' || x, NOW(), NOW(), TRUE " +
+        "FROM SYSTEM_RANGE(1, " + USERS + ") AS t(x)";
+    // Spread over a year of creation times and a skewed view distribution, as a real catalogue would be
+    private static final String SEED_VIDEOS =
+        "INSERT INTO videos (title, description, file_path, view_count, like_count, dislike_count, status, user_id, created_at, updated_at) " +
+        "SELECT 'Video ' || x, 'Description ' || x, '/videos/' || x || '.mp4', MOD(x * x, 100003), MOD(x, 97), 0, 'READY', " +
+        "(SELECT MIN(id) FROM users) + MOD(x, " + USERS + "), TIMESTAMP '2024-01-01 00:00:00' + MOD(x * 7919, 525600) * INTERVAL '1' MINUTE, NOW() " +
+        "FROM SYSTEM_RANGE(1, " + VIDEOS + ") AS t(x)";
+
+    private ConfigurableApplicationContext context;
+    private VideoRepository videoRepository;
+
+    private LocalDateTime middleCreatedAt;
+    private long middleId;
+    private List<Long> resultIds;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Persistence.class)
+            .web(WebApplicationType.NONE)
+            // As arguments, so they win over the application.yml compiled in with the sources
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:videos;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.open-in-view=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.youtube.app=WARN",
+                "--logging.level.org.springframework.web=WARN");
+        videoRepository = context.getBean(VideoRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update(SEED_USERS);
+        jdbcTemplate.update(SEED_VIDEOS);
+        jdbcTemplate.execute("ANALYZE");
+
+        // A cursor halfway down the home page, where a user who kept scrolling would be
+        VideoSummary middle = videoRepository.findLatestBefore(Video.VideoStatus.READY, NEWEST, Long.MAX_VALUE,
+            PageRequest.of(0, VIDEOS / 2)).get(VIDEOS / 2 - 1);
+        middleCreatedAt = middle.createdAt();
+        middleId = middle.id();
+
+        long firstId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM videos", Long.class);
+        resultIds = LongStream.range(0, 20).map(i -> firstId + i * (VIDEOS / 20)).boxed().toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<VideoSummary> latestFirstPage() {
+        return videoRepository.findLatestBefore(Video.VideoStatus.READY, NEWEST, Long.MAX_VALUE, PAGE);
+    }
+
+    @Benchmark
+    public List<VideoSummary> latestDeepPage() {
+        return videoRepository.findLatestBefore(Video.VideoStatus.READY, middleCreatedAt, middleId, PAGE);
+    }
+
+    @Benchmark
+    public List<VideoSummary> mostViewedFirstPage() {
+        return videoRepository.findMostViewedBefore(Video.VideoStatus.READY, Long.MAX_VALUE, Long.MAX_VALUE, PAGE);
+    }
+
+    @Benchmark
+    public List<VideoSummary> uploaderFirstPage() {
+        return videoRepository.findByUploaderBefore("user42", Video.VideoStatus.READY, NEWEST, Long.MAX_VALUE, PAGE);
+    }
+
+    @Benchmark
+    public List<VideoSummary> summariesById() {
+        return videoRepository.findSummaries(resultIds, Video.VideoStatus.READY);
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Video.class)
+    @EnableJpaRepositories(basePackageClasses = VideoRepository.class)
+    static class Persistence {
+    }
+}
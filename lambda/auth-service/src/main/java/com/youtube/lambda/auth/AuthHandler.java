@@ -1,25 +1,103 @@
 package com.youtube.lambda.auth;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.youtube.lambda.auth.dto.ErrorResponse;
 import com.youtube.lambda.auth.dto.LoginRequest;
+import com.youtube.lambda.auth.dto.LoginResponse;
 import com.youtube.lambda.auth.dto.RegisterRequest;
+import com.youtube.lambda.auth.dto.RegisterResponse;
+import com.youtube.lambda.auth.dto.UsernameCheckResponse;
 import com.youtube.lambda.auth.model.User;
+import com.youtube.lambda.auth.repository.BloomFilter;
+import com.youtube.lambda.auth.repository.DuplicateUserException;
 import com.youtube.lambda.auth.repository.UserRepository;
+import org.crac.Core;
+import org.crac.Resource;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
-public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>, Resource {
+    
+    private static final int DEFAULT_BCRYPT_STRENGTH = 10;
+    private static final double DEFAULT_FILTER_FPP = 0.01;
+    private static final long DEFAULT_FILTER_REFRESH_MILLIS = 5_000;
+    private static final long MIN_FILTER_CAPACITY = 10_000;
+    private static final int FILTER_BATCH_SIZE = 5_000;
+    
+    // Readers and writers are immutable and cache their (de)serializers, so one of each serves every invocation
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader REGISTER_READER = OBJECT_MAPPER.readerFor(RegisterRequest.class);
+    private static final ObjectReader LOGIN_READER = OBJECT_MAPPER.readerFor(LoginRequest.class);
+    private static final ObjectWriter REGISTER_WRITER = OBJECT_MAPPER.writerFor(RegisterResponse.class);
+    private static final ObjectWriter LOGIN_WRITER = OBJECT_MAPPER.writerFor(LoginResponse.class);
+    private static final ObjectWriter CHECK_WRITER = OBJECT_MAPPER.writerFor(UsernameCheckResponse.class);
+    private static final ObjectWriter ERROR_WRITER = OBJECT_MAPPER.writerFor(ErrorResponse.class);
+    
+    private static final Map<String, String> HEADERS = Map.of(
+        "Content-Type", "application/json",
+        "Access-Control-Allow-Origin", "*",
+        "Access-Control-Allow-Headers", "Content-Type,Authorization",
+        "Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS"
+    );
+    
+    private static final String SERIALIZATION_FAILED = "{\"error\":\"Failed to serialize response\"}";
+    private static final String ENDPOINT_NOT_FOUND = errorBody("Endpoint not found");
+    private static final String INTERNAL_ERROR = errorBody("Internal server error");
+    private static final String USERNAME_REQUIRED = errorBody("Username is required");
+    private static final String EMAIL_REQUIRED = errorBody("Email is required");
+    private static final String PASSWORD_TOO_SHORT = errorBody("Password must be at least 6 characters");
+    private static final String PASSWORD_REQUIRED = errorBody("Password is required");
+    private static final String USERNAME_EXISTS = errorBody("Username already exists");
+    private static final String EMAIL_EXISTS = errorBody("Email already exists");
+    private static final String INVALID_CREDENTIALS = errorBody("Invalid username or password");
+    private static final String USERNAME_PARAMETER_REQUIRED = errorBody("Username parameter is required");
+    
+    private final Route[] routes = {
+        new Route("POST", "/register", this::handleRegister),
+        new Route("POST", "/login", this::handleLogin),
+        new Route("GET", "/check", this::handleUsernameCheck)
+    };
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final UserRepository userRepository = new UserRepository();
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final int bcryptStrength = bcryptStrength();
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+    private final double filterFpp = envDouble("USERNAME_FILTER_FPP", DEFAULT_FILTER_FPP);
+    private final long filterRefreshMillis = envLong("USERNAME_FILTER_REFRESH_MILLIS", DEFAULT_FILTER_REFRESH_MILLIS);
+    
+    // Usernames known to be taken; invocations on one container never overlap, so plain fields suffice
+    private BloomFilter usernameFilter;
+    private long filterWatermark;
+    private long filterRefreshedAt;
+    
+    public AuthHandler() {
+        // Runs in the init phase, which is not billed per request and is captured by SnapStart snapshots
+        if (!"false".equalsIgnoreCase(System.getenv("LAMBDA_PRIMING"))) {
+            prime();
+        }
+        Core.getGlobalContext().register(this);
+    }
+    
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+        // Sockets cannot survive a snapshot; restored copies would all share the same dead connection
+        userRepository.close();
+    }
+    
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        primeDatabase();
+    }
     
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
@@ -29,45 +107,33 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
             
             context.getLogger().log("Processing request: " + method + " " + path);
             
-            if ("POST".equals(method)) {
-                if (path.endsWith("/register")) {
-                    return handleRegister(input);
-                } else if (path.endsWith("/login")) {
-                    return handleLogin(input);
+            for (Route route : routes) {
+                if (route.matches(method, path)) {
+                    return route.handler().apply(input);
                 }
-            } else if ("GET".equals(method) && path.endsWith("/check")) {
-                return handleUsernameCheck(input);
             }
             
-            return createResponse(404, createErrorResponse("Endpoint not found"));
+            return createResponse(404, ENDPOINT_NOT_FOUND);
             
         } catch (Exception e) {
             context.getLogger().log("Error processing request: " + e.getMessage());
-            return createResponse(500, createErrorResponse("Internal server error"));
+            return createResponse(500, INTERNAL_ERROR);
         }
     }
     
     private APIGatewayProxyResponseEvent handleRegister(APIGatewayProxyRequestEvent input) {
         try {
-            RegisterRequest request = objectMapper.readValue(input.getBody(), RegisterRequest.class);
+            RegisterRequest request = REGISTER_READER.readValue(input.getBody());
             
             // Validate request
             if (request.getUsername() == null || request.getUsername().trim().isEmpty()) {
-                return createResponse(400, createErrorResponse("Username is required"));
+                return createResponse(400, USERNAME_REQUIRED);
             }
             if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
-                return createResponse(400, createErrorResponse("Email is required"));
+                return createResponse(400, EMAIL_REQUIRED);
             }
             if (request.getPassword() == null || request.getPassword().length() < 6) {
-                return createResponse(400, createErrorResponse("Password must be at least 6 characters"));
-            }
-            
-            // Check if user already exists
-            if (userRepository.existsByUsername(request.getUsername())) {
-                return createResponse(400, createErrorResponse("Username already exists"));
-            }
-            if (userRepository.existsByEmail(request.getEmail())) {
-                return createResponse(400, createErrorResponse("Email already exists"));
+                return createResponse(400, PASSWORD_TOO_SHORT);
             }
             
             // Create new user
@@ -78,29 +144,30 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
             );
             
             user = userRepository.save(user);
+            if (usernameFilter != null) {
+                usernameFilter.put(user.getUsername());
+            }
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "User registered successfully");
-            response.put("userId", user.getId());
-            response.put("username", user.getUsername());
-            
-            return createResponse(200, response);
+            return createResponse(200, REGISTER_WRITER,
+                new RegisterResponse("User registered successfully", user.getId(), user.getUsername()));
             
+        } catch (DuplicateUserException e) {
+            return createResponse(400, "username".equals(e.getField()) ? USERNAME_EXISTS : EMAIL_EXISTS);
         } catch (Exception e) {
-            return createResponse(400, createErrorResponse("Invalid request: " + e.getMessage()));
+            return createResponse(400, errorBody("Invalid request: " + e.getMessage()));
         }
     }
     
     private APIGatewayProxyResponseEvent handleLogin(APIGatewayProxyRequestEvent input) {
         try {
-            LoginRequest request = objectMapper.readValue(input.getBody(), LoginRequest.class);
+            LoginRequest request = LOGIN_READER.readValue(input.getBody());
             
             // Validate request
             if (request.getUsername() == null || request.getUsername().trim().isEmpty()) {
-                return createResponse(400, createErrorResponse("Username is required"));
+                return createResponse(400, USERNAME_REQUIRED);
             }
             if (request.getPassword() == null || request.getPassword().trim().isEmpty()) {
-                return createResponse(400, createErrorResponse("Password is required"));
+                return createResponse(400, PASSWORD_REQUIRED);
             }
             
             // Find user
@@ -108,19 +175,15 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
                 .orElse(null);
             
             if (user == null || !passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-                return createResponse(400, createErrorResponse("Invalid username or password"));
+                return createResponse(400, INVALID_CREDENTIALS);
             }
+            rehashIfCostChanged(user, request.getPassword());
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Login successful");
-            response.put("userId", user.getId());
-            response.put("username", user.getUsername());
-            response.put("email", user.getEmail());
-            
-            return createResponse(200, response);
+            return createResponse(200, LOGIN_WRITER,
+                new LoginResponse("Login successful", user.getId(), user.getUsername(), user.getEmail()));
             
         } catch (Exception e) {
-            return createResponse(400, createErrorResponse("Invalid request: " + e.getMessage()));
+            return createResponse(400, errorBody("Invalid request: " + e.getMessage()));
         }
     }
     
@@ -129,45 +192,162 @@ public class AuthHandler implements RequestHandler<APIGatewayProxyRequestEvent,
             String username = input.getQueryStringParameters().get("username");
             
             if (username == null || username.trim().isEmpty()) {
-                return createResponse(400, createErrorResponse("Username parameter is required"));
+                return createResponse(400, USERNAME_PARAMETER_REQUIRED);
             }
             
-            boolean exists = userRepository.existsByUsername(username);
+            boolean exists = isUsernameTaken(username);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("exists", exists);
-            response.put("available", !exists);
-            
-            return createResponse(200, response);
+            return createResponse(200, CHECK_WRITER, new UsernameCheckResponse(exists, !exists));
             
         } catch (Exception e) {
-            return createResponse(400, createErrorResponse("Invalid request: " + e.getMessage()));
+            return createResponse(400, errorBody("Invalid request: " + e.getMessage()));
         }
     }
     
-    private APIGatewayProxyResponseEvent createResponse(int statusCode, Object body) {
-        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
-        response.setStatusCode(statusCode);
+    /**
+     * Brings a hash made at an older BCRYPT_STRENGTH up to the current one while the plaintext is
+     * at hand. Best effort: the login has already succeeded, so a failed update only logs.
+     */
+    private void rehashIfCostChanged(User user, String password) {
+        String hash = user.getPassword();
+        // BCrypt hashes look like $2a$10$...; characters 4-5 are the cost
+        if (hash.length() < 7 || hash.charAt(6) != '$' || Integer.parseInt(hash.substring(4, 6)) == bcryptStrength) {
+            return;
+        }
+        try {
+            userRepository.updatePassword(user.getId(), passwordEncoder.encode(password));
+        } catch (RuntimeException e) {
+            LambdaRuntime.getLogger().log("Password rehash failed for user " + user.getId() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * A filter miss is a definite "available" and skips the database; a hit may be a false
+     * positive, so it is confirmed with an indexed lookup.
+     */
+    private boolean isUsernameTaken(String username) {
+        BloomFilter filter = refreshUsernameFilter();
+        if (filter != null && !filter.mightContain(username)) {
+            return false;
+        }
         
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", "application/json");
-        headers.put("Access-Control-Allow-Origin", "*");
-        headers.put("Access-Control-Allow-Headers", "Content-Type,Authorization");
-        headers.put("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS");
-        response.setHeaders(headers);
+        boolean exists = userRepository.existsByUsername(username);
+        if (exists && filter != null) {
+            filter.put(username);
+        }
+        return exists;
+    }
+    
+    /**
+     * Builds the username filter on first use and tops it up from the last id seen once it is
+     * older than the refresh interval, so names registered through other containers show up.
+     * Returns null if the database cannot be read, in which case checks go straight to it.
+     */
+    private BloomFilter refreshUsernameFilter() {
+        long now = System.currentTimeMillis();
+        if (usernameFilter != null && now - filterRefreshedAt < filterRefreshMillis) {
+            return usernameFilter;
+        }
         
         try {
-            response.setBody(objectMapper.writeValueAsString(body));
+            // Past capacity the false-positive rate climbs, so start over at the new size
+            if (usernameFilter == null || usernameFilter.approximateCount() > usernameFilter.capacity()) {
+                long capacity = Math.max(MIN_FILTER_CAPACITY, userRepository.estimatedCount() * 2);
+                BloomFilter filter = BloomFilter.create(capacity, filterFpp);
+                filterWatermark = userRepository.forEachUsernameAfter(0L, FILTER_BATCH_SIZE, filter::put);
+                usernameFilter = filter;
+            } else {
+                filterWatermark = userRepository.forEachUsernameAfter(filterWatermark, FILTER_BATCH_SIZE, usernameFilter::put);
+            }
+            filterRefreshedAt = now;
+        } catch (RuntimeException e) {
+            LambdaRuntime.getLogger().log("Username filter refresh failed: " + e.getMessage());
+        }
+        return usernameFilter;
+    }
+    
+    /**
+     * Pushes the first-request code paths through class loading and the JIT ahead of time:
+     * Jackson for every request and response shape, a BCrypt round at the configured cost,
+     * and the Postgres driver down to an open connection.
+     */
+    private void prime() {
+        try {
+            REGISTER_READER.readValue("{\"username\":\"priming\",\"email\":\"priming@example.com\",\"password\":\"priming\"}");
+            LOGIN_READER.readValue("{\"username\":\"priming\",\"password\":\"priming\"}");
+            
+            createResponse(200, REGISTER_WRITER, new RegisterResponse("priming", 0L, "priming"));
+            createResponse(200, LOGIN_WRITER, new LoginResponse("priming", 0L, "priming", "priming@example.com"));
+            createResponse(200, CHECK_WRITER, new UsernameCheckResponse(false, true));
+            createResponse(400, errorBody("priming"));
+            
+            passwordEncoder.matches("priming", passwordEncoder.encode("priming"));
+            Class.forName("org.postgresql.Driver");
         } catch (Exception e) {
-            response.setBody("{\"error\":\"Failed to serialize response\"}");
+            LambdaRuntime.getLogger().log("Priming incomplete: " + e.getMessage());
         }
-        
+        primeDatabase();
+    }
+    
+    private void primeDatabase() {
+        if (System.getenv("DB_URL") == null) {
+            return;
+        }
+        try {
+            // Opens the first connection too; after a restore this only tops up the snapshotted filter
+            filterRefreshedAt = 0;
+            refreshUsernameFilter();
+        } catch (RuntimeException e) {
+            LambdaRuntime.getLogger().log("Database priming failed: " + e.getMessage());
+        }
+    }
+    
+    private static int bcryptStrength() {
+        String strength = System.getenv("BCRYPT_STRENGTH");
+        return strength != null ? Integer.parseInt(strength) : DEFAULT_BCRYPT_STRENGTH;
+    }
+    
+    private static double envDouble(String name, double defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+    
+    private static long envLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+    
+    private static APIGatewayProxyResponseEvent createResponse(int statusCode, String body) {
+        APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
+        response.setStatusCode(statusCode);
+        response.setHeaders(HEADERS);
+        response.setBody(body);
         return response;
     }
     
-    private Map<String, String> createErrorResponse(String message) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", message);
-        return error;
+    private static APIGatewayProxyResponseEvent createResponse(int statusCode, ObjectWriter writer, Object body) {
+        try {
+            return createResponse(statusCode, writer.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            return createResponse(statusCode, SERIALIZATION_FAILED);
+        }
+    }
+    
+    private static String errorBody(String message) {
+        try {
+            return ERROR_WRITER.writeValueAsString(new ErrorResponse(message));
+        } catch (JsonProcessingException e) {
+            return SERIALIZATION_FAILED;
+        }
+    }
+    
+    private record Route(
+        String method,
+        String pathSuffix,
+        Function<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler
+    ) {
+        boolean matches(String method, String path) {
+            return this.method.equals(method) && path.endsWith(pathSuffix);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,3 @@
+package com.youtube.lambda.auth.dto;
+
+public record ErrorResponse(String error) {}
@@ -0,0 +1,3 @@
+package com.youtube.lambda.auth.dto;
+
+public record LoginResponse(String message, Long userId, String username, String email) {}
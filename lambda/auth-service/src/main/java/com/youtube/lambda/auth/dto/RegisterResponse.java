@@ -0,0 +1,3 @@
+package com.youtube.lambda.auth.dto;
+
+public record RegisterResponse(String message, Long userId, String username) {}
@@ -0,0 +1,3 @@
+package com.youtube.lambda.auth.dto;
+
+public record UsernameCheckResponse(boolean exists, boolean available) {}
@@ -0,0 +1,18 @@
+package com.youtube.lambda.auth.repository;
+
+/**
+ * An insert collided with an existing user on a unique column; {@link #getField()} says which.
+ */
+public class DuplicateUserException extends RuntimeException {
+
+    private final String field;
+
+    public DuplicateUserException(String field) {
+        super(("username".equals(field) ? "Username" : "Email") + " already exists");
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
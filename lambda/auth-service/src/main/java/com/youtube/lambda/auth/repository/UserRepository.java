@@ -3,62 +3,51 @@ package com.youtube.lambda.auth.repository;
 import com.youtube.lambda.auth.model.User;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class UserRepository {
     
-    private final String dbUrl;
-    private final String dbUsername;
-    private final String dbPassword;
+    private static final String USER_COLUMNS =
+        "id, username, email, password, display_name, profile_image_url, created_at, updated_at";
+    
+    private static final String FIND_BY_USERNAME = "SELECT " + USER_COLUMNS + " FROM users WHERE username = ?";
+    private static final String FIND_BY_EMAIL = "SELECT " + USER_COLUMNS + " FROM users WHERE email = ?";
+    private static final String EXISTS_BY_USERNAME = "SELECT 1 FROM users WHERE username = ? LIMIT 1";
+    private static final String EXISTS_BY_EMAIL = "SELECT 1 FROM users WHERE email = ? LIMIT 1";
+    private static final String USERNAMES_AFTER = "SELECT id, username FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    // Planner statistics rather than count(*), which would scan the table just to size a filter
+    private static final String ESTIMATED_COUNT = "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'users'::regclass";
+    private static final String INSERT =
+        "INSERT INTO users (username, email, password, display_name, profile_image_url, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id";
+    private static final String UPDATE_PASSWORD = "UPDATE users SET password = ?, updated_at = ? WHERE id = ?";
+    private static final String UPDATE =
+        "UPDATE users SET display_name = ?, profile_image_url = ?, updated_at = ? WHERE id = ?";
+    
+    private static final String UNIQUE_VIOLATION = "23505";
+    // Postgres reports the colliding column as "Key (username)=(...) already exists."
+    private static final Pattern CONFLICT_KEY = Pattern.compile("Key \\((\\w+)\\)=");
+    
+    private final ConnectionPool connectionPool;
     
     public UserRepository() {
-        this.dbUrl = System.getenv("DB_URL");
-        this.dbUsername = System.getenv("DB_USERNAME");
-        this.dbPassword = System.getenv("DB_PASSWORD");
+        this(ConnectionPool.fromEnvironment());
     }
     
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(dbUrl, dbUsername, dbPassword);
+    public UserRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
     
     public Optional<User> findByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return Optional.of(mapResultSetToUser(rs));
-            }
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error", e);
-        }
-        
-        return Optional.empty();
+        return findOne(FIND_BY_USERNAME, username);
     }
     
     public Optional<User> findByEmail(String email) {
-        String sql = "SELECT * FROM users WHERE email = ?";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, email);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return Optional.of(mapResultSetToUser(rs));
-            }
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error", e);
-        }
-        
-        return Optional.empty();
+        return findOne(FIND_BY_EMAIL, email);
     }
     
     public User save(User user) {
@@ -70,12 +59,8 @@ public class UserRepository {
     }
     
     private User insert(User user) {
-        String sql = "INSERT INTO users (username, email, password, display_name, profile_image_url, created_at, updated_at) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        return connectionPool.execute(conn -> {
+            PreparedStatement stmt = conn.prepare(INSERT);
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getEmail());
             stmt.setString(3, user.getPassword());
@@ -84,44 +69,134 @@ public class UserRepository {
             stmt.setTimestamp(6, Timestamp.valueOf(user.getCreatedAt()));
             stmt.setTimestamp(7, Timestamp.valueOf(user.getUpdatedAt()));
             
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                user.setId(rs.getLong("id"));
+            // No existence pre-check: the unique constraints decide, so concurrent signups cannot both win
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    user.setId(rs.getLong("id"));
+                }
+            } catch (SQLException e) {
+                String field = UNIQUE_VIOLATION.equals(e.getSQLState()) ? conflictingField(e) : null;
+                if (field == null) {
+                    throw e;
+                }
+                throw new DuplicateUserException(field);
             }
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error", e);
-        }
-        
-        return user;
+            return user;
+        });
     }
     
     private User update(User user) {
-        String sql = "UPDATE users SET display_name = ?, profile_image_url = ?, updated_at = ? WHERE id = ?";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        return connectionPool.execute(conn -> {
+            PreparedStatement stmt = conn.prepare(UPDATE);
             stmt.setString(1, user.getDisplayName());
             stmt.setString(2, user.getProfileImageUrl());
             stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
             stmt.setLong(4, user.getId());
             
             stmt.executeUpdate();
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error", e);
-        }
-        
-        return user;
+            return user;
+        });
+    }
+    
+    public void updatePassword(Long id, String password) {
+        connectionPool.execute(conn -> {
+            PreparedStatement stmt = conn.prepare(UPDATE_PASSWORD);
+            stmt.setString(1, password);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(3, id);
+            return stmt.executeUpdate();
+        });
     }
     
     public boolean existsByUsername(String username) {
-        return findByUsername(username).isPresent();
+        return exists(EXISTS_BY_USERNAME, username);
     }
     
     public boolean existsByEmail(String email) {
-        return findByEmail(email).isPresent();
+        return exists(EXISTS_BY_EMAIL, email);
+    }
+    
+    /**
+     * Feeds usernames with ids above {@code afterId} to {@code sink} in id order, a batch per
+     * query, and returns the highest id seen ({@code afterId} if there were none).
+     */
+    public long forEachUsernameAfter(long afterId, int batchSize, Consumer<String> sink) {
+        long watermark = afterId;
+        while (true) {
+            long from = watermark;
+            long[] last = { from };
+            int rows = connectionPool.execute(conn -> {
+                PreparedStatement stmt = conn.prepare(USERNAMES_AFTER);
+                stmt.setLong(1, from);
+                stmt.setInt(2, batchSize);
+                
+                int count = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        last[0] = rs.getLong(1);
+                        sink.accept(rs.getString(2));
+                        count++;
+                    }
+                }
+                return count;
+            });
+            watermark = last[0];
+            if (rows < batchSize) {
+                return watermark;
+            }
+        }
+    }
+    
+    public long estimatedCount() {
+        return connectionPool.execute(conn -> {
+            try (ResultSet rs = conn.prepare(ESTIMATED_COUNT).executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+    
+    private Optional<User> findOne(String sql, String value) {
+        return connectionPool.execute(conn -> {
+            PreparedStatement stmt = conn.prepare(sql);
+            stmt.setString(1, value);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapResultSetToUser(rs)) : Optional.empty();
+            }
+        });
+    }
+    
+    private boolean exists(String sql, String value) {
+        return connectionPool.execute(conn -> {
+            PreparedStatement stmt = conn.prepare(sql);
+            stmt.setString(1, value);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        });
+    }
+    
+    private static String conflictingField(SQLException e) {
+        String message = e.getMessage() != null ? e.getMessage() : "";
+        Matcher matcher = CONFLICT_KEY.matcher(message);
+        if (matcher.find() && ("username".equals(matcher.group(1)) || "email".equals(matcher.group(1)))) {
+            return matcher.group(1);
+        }
+        // Fall back to the constraint names the schema declares
+        String lower = message.toLowerCase(Locale.ROOT);
+        if (lower.contains("uk_users_username")) {
+            return "username";
+        }
+        if (lower.contains("uk_users_email")) {
+            return "email";
+        }
+        return null;
+    }
+    
+    // Drops pooled connections; the next query opens a fresh one
+    public void close() {
+        connectionPool.close();
     }
     
     private User mapResultSetToUser(ResultSet rs) throws SQLException {
@@ -0,0 +1,114 @@
+package com.youtube.lambda.auth;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Cold-start harness: constructs {@link AuthHandler} the way the Lambda runtime does, then times
+ * a register and a login against it in a fresh JVM. Run with {@code LAMBDA_PRIMING=false} to
+ * compare against an unprimed handler. Without {@code DB_URL} the requests fail validation
+ * against the database, but Jackson and the response path are still exercised.
+ * <p>
+ * Lives with the tests so it stays out of the deployed jar; {@code mvn package -Pappcds} packages it
+ * as the {@code -tests} jar and runs it to record which classes to archive.
+ */
+public class LocalInvoker {
+
+    public static void main(String[] args) {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        long start = System.nanoTime();
+        AuthHandler handler = new AuthHandler();
+        long init = System.nanoTime() - start;
+        long sinceJvmStart = System.currentTimeMillis() - jvmStart;
+
+        String username = "harness" + UUID.randomUUID().toString().substring(0, 8);
+        String credentials = "\"username\":\"" + username + "\",\"password\":\"harness-password\"";
+
+        start = System.nanoTime();
+        APIGatewayProxyResponseEvent first = handler.handleRequest(
+            post("/auth/register", "{" + credentials + ",\"email\":\"" + username + "@example.com\"}"),
+            new LocalContext()
+        );
+        long firstInvocation = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        APIGatewayProxyResponseEvent second = handler.handleRequest(post("/auth/login", "{" + credentials + "}"), new LocalContext());
+        long secondInvocation = System.nanoTime() - start;
+
+        System.out.printf("priming=%s jvm_to_handler_ms=%d init_ms=%.1f first_ms=%.1f second_ms=%.1f first_status=%d second_status=%d%n",
+            !"false".equalsIgnoreCase(System.getenv("LAMBDA_PRIMING")),
+            sinceJvmStart,
+            init / 1e6,
+            firstInvocation / 1e6,
+            secondInvocation / 1e6,
+            first.getStatusCode(),
+            second.getStatusCode());
+    }
+
+    private static APIGatewayProxyRequestEvent post(String path, String body) {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        event.setHttpMethod("POST");
+        event.setPath(path);
+        event.setBody(body);
+        return event;
+    }
+
+    private static final class LocalContext implements Context {
+
+        private final String requestId = UUID.randomUUID().toString();
+
+        @Override
+        public String getAwsRequestId() { return requestId; }
+
+        @Override
+        public String getLogGroupName() { return "local"; }
+
+        @Override
+        public String getLogStreamName() { return "local"; }
+
+        @Override
+        public String getFunctionName() { return "auth-service"; }
+
+        @Override
+        public String getFunctionVersion() { return "$LATEST"; }
+
+        @Override
+        public String getInvokedFunctionArn() { return "local"; }
+
+        @Override
+        public CognitoIdentity getIdentity() { return null; }
+
+        @Override
+        public ClientContext getClientContext() { return null; }
+
+        @Override
+        public int getRemainingTimeInMillis() { return 30_000; }
+
+        @Override
+        public int getMemoryLimitInMB() { return 512; }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                    // Request logging would only add noise to the timings
+                }
+
+                @Override
+                public void log(byte[] message) {
+                    log(new String(message, StandardCharsets.UTF_8));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,55 @@
+#!/bin/bash
+
+# Measure Lambda handler cold starts locally
+# Usage: ./coldstart.sh [auth|user] [runs]
+#
+# Each run is a fresh JVM that constructs the handler and serves two requests (see LocalInvoker).
+# Runs the handler unprimed, primed, and primed with the AppCDS archive from `mvn package -Pappcds`,
+# then prints median timings per mode. Export DB_URL, DB_USERNAME and DB_PASSWORD to include
+# the database in the measurement (e.g. the postgres service from docker-compose.yml).
+
+set -e
+
+SERVICE=${1:-auth}
+RUNS=${2:-10}
+DIR="$(cd "$(dirname "$0")/${SERVICE}-service" && pwd)"
+JAR="${DIR}/target/${SERVICE}-service-1.0.0.jar"
+HARNESS="${DIR}/target/${SERVICE}-service-1.0.0-tests.jar"
+ARCHIVE="${DIR}/target/app-cds.jsa"
+MAIN="com.youtube.lambda.${SERVICE}.LocalInvoker"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [ ! -f "$JAR" ] || [ ! -f "$HARNESS" ]; then
+    echo "Error: $JAR or $HARNESS not found. Run 'mvn package -Pappcds' in ${SERVICE}-service first."
+    exit 1
+fi
+
+run_mode() {
+    local label=$1 priming=$2
+    shift 2
+    for i in $(seq 1 "$RUNS"); do
+        LAMBDA_PRIMING=$priming "$JAVA" "$@" -cp "$JAR:$HARNESS" "$MAIN" 2>/dev/null | grep '^priming='
+    done | awk -v label="$label" '
+        function median(values, n,    i, j, t) {
+            for (i = 2; i <= n; i++) { t = values[i]; for (j = i - 1; j > 0 && values[j] > t; j--) values[j + 1] = values[j]; values[j + 1] = t }
+            return n % 2 ? values[(n + 1) / 2] : (values[n / 2] + values[n / 2 + 1]) / 2
+        }
+        {
+            for (f = 1; f <= NF; f++) { split($f, kv, "="); v[kv[1]] = kv[2] }
+            n++; jvm[n] = v["jvm_to_handler_ms"]; init[n] = v["init_ms"]; first[n] = v["first_ms"]
+            second[n] = v["second_ms"]; total[n] = v["jvm_to_handler_ms"] + v["first_ms"]
+        }
+        END {
+            printf "%-14s jvm+init %8.1f  init %8.1f  first %8.1f  second %6.1f  until-first-response %8.1f  (median of %d)\n",
+                label, median(jvm, n), median(init, n), median(first, n), median(second, n), median(total, n), n
+        }'
+}
+
+echo "Cold start of ${SERVICE}-service, ${RUNS} runs per mode"
+run_mode "unprimed" false
+run_mode "primed" true
+if [ -f "$ARCHIVE" ]; then
+    run_mode "primed+appcds" true -XX:SharedArchiveFile="$ARCHIVE"
+else
+    echo "No AppCDS archive at $ARCHIVE; build with 'mvn package -Pappcds' to produce one"
+fi
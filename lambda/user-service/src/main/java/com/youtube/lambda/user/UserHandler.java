@@ -1,25 +1,84 @@
 package com.youtube.lambda.user;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaRuntime;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.youtube.lambda.user.dto.ErrorResponse;
+import com.youtube.lambda.user.dto.ProfileResponse;
+import com.youtube.lambda.user.dto.ProfileUpdateResponse;
+import com.youtube.lambda.user.dto.PublicProfileResponse;
+import com.youtube.lambda.user.dto.UserResponse;
 import com.youtube.lambda.user.model.User;
 import com.youtube.lambda.user.repository.UserRepository;
+import org.crac.Core;
+import org.crac.Resource;
 
-import java.util.HashMap;
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
-public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>, Resource {
+    
+    // Readers and writers are immutable and cache their (de)serializers, so one of each serves every invocation
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final ObjectReader UPDATES_READER = OBJECT_MAPPER.readerFor(new TypeReference<Map<String, String>>() {});
+    private static final ObjectWriter PROFILE_WRITER = OBJECT_MAPPER.writerFor(ProfileResponse.class);
+    private static final ObjectWriter PUBLIC_PROFILE_WRITER = OBJECT_MAPPER.writerFor(PublicProfileResponse.class);
+    private static final ObjectWriter UPDATE_WRITER = OBJECT_MAPPER.writerFor(ProfileUpdateResponse.class);
+    private static final ObjectWriter ERROR_WRITER = OBJECT_MAPPER.writerFor(ErrorResponse.class);
+    
+    private static final Pattern USER_PATH = Pattern.compile(".*/users/[^/]+$");
+    
+    private static final Map<String, String> HEADERS = Map.of(
+        "Content-Type", "application/json",
+        "Access-Control-Allow-Origin", "*",
+        "Access-Control-Allow-Headers", "Content-Type,Authorization",
+        "Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS"
+    );
+    
+    private static final String SERIALIZATION_FAILED = "{\"error\":\"Failed to serialize response\"}";
+    private static final String ENDPOINT_NOT_FOUND = errorBody("Endpoint not found");
+    private static final String INTERNAL_ERROR = errorBody("Internal server error");
+    private static final String AUTHORIZATION_REQUIRED = errorBody("Authorization header required");
+    private static final String USER_ID_REQUIRED = errorBody("User ID required");
+    private static final String USER_NOT_FOUND = errorBody("User not found");
+    
+    // Checked in order: /users/profile must win over the /users/{username} pattern
+    private final Route[] routes = {
+        new Route("GET", path -> path.endsWith("/profile"), this::handleGetCurrentUserProfile),
+        new Route("GET", path -> USER_PATH.matcher(path).matches(), this::handleGetUserProfile),
+        new Route("PUT", path -> path.endsWith("/profile"), this::handleUpdateProfile)
+    };
     
-    private final ObjectMapper objectMapper;
     private final UserRepository userRepository = new UserRepository();
     
     public UserHandler() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        // Runs in the init phase, which is not billed per request and is captured by SnapStart snapshots
+        if (!"false".equalsIgnoreCase(System.getenv("LAMBDA_PRIMING"))) {
+            prime();
+        }
+        Core.getGlobalContext().register(this);
+    }
+    
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+        // Sockets cannot survive a snapshot; restored copies would all share the same dead connection
+        userRepository.close();
+    }
+    
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        primeDatabase();
     }
     
     @Override
@@ -30,21 +89,17 @@ public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent,
             
             context.getLogger().log("Processing request: " + method + " " + path);
             
-            if ("GET".equals(method)) {
-                if (path.endsWith("/profile")) {
-                    return handleGetCurrentUserProfile(input);
-                } else if (path.matches(".*/users/[^/]+$")) {
-                    return handleGetUserProfile(input);
+            for (Route route : routes) {
+                if (route.matches(method, path)) {
+                    return route.handler().apply(input);
                 }
-            } else if ("PUT".equals(method) && path.endsWith("/profile")) {
-                return handleUpdateProfile(input);
             }
             
-            return createResponse(404, createErrorResponse("Endpoint not found"));
+            return createResponse(404, ENDPOINT_NOT_FOUND);
             
         } catch (Exception e) {
             context.getLogger().log("Error processing request: " + e.getMessage());
-            return createResponse(500, createErrorResponse("Internal server error"));
+            return createResponse(500, INTERNAL_ERROR);
         }
     }
     
@@ -53,7 +108,7 @@ public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent,
             // Extract user ID from JWT token (simplified - in real implementation you'd validate JWT)
             String authHeader = input.getHeaders().get("Authorization");
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return createResponse(401, createErrorResponse("Authorization header required"));
+                return createResponse(401, AUTHORIZATION_REQUIRED);
             }
             
             // For demo purposes, extract userId from query parameter
@@ -62,25 +117,24 @@ public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent,
                 input.getQueryStringParameters().get("userId") : null;
             
             if (userIdStr == null) {
-                return createResponse(400, createErrorResponse("User ID required"));
+                return createResponse(400, USER_ID_REQUIRED);
             }
             
             Long userId = Long.parseLong(userIdStr);
             User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", user.getId());
-            response.put("username", user.getUsername());
-            response.put("email", user.getEmail());
-            response.put("displayName", user.getDisplayName());
-            response.put("profileImageUrl", user.getProfileImageUrl());
-            response.put("createdAt", user.getCreatedAt());
-            
-            return createResponse(200, response);
+            return createResponse(200, PROFILE_WRITER, new ProfileResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getDisplayName(),
+                user.getProfileImageUrl(),
+                user.getCreatedAt()
+            ));
             
         } catch (Exception e) {
-            return createResponse(400, createErrorResponse("Invalid request: " + e.getMessage()));
+            return createResponse(400, errorBody("Invalid request: " + e.getMessage()));
         }
     }
     
@@ -92,17 +146,16 @@ public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent,
             User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", user.getId());
-            response.put("username", user.getUsername());
-            response.put("displayName", user.getDisplayName());
-            response.put("profileImageUrl", user.getProfileImageUrl());
-            response.put("createdAt", user.getCreatedAt());
-            
-            return createResponse(200, response);
+            return createResponse(200, PUBLIC_PROFILE_WRITER, new PublicProfileResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getDisplayName(),
+                user.getProfileImageUrl(),
+                user.getCreatedAt()
+            ));
             
         } catch (Exception e) {
-            return createResponse(404, createErrorResponse("User not found"));
+            return createResponse(404, USER_NOT_FOUND);
         }
     }
     
@@ -113,7 +166,7 @@ public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent,
                 input.getQueryStringParameters().get("userId") : null;
             
             if (userIdStr == null) {
-                return createResponse(400, createErrorResponse("User ID required"));
+                return createResponse(400, USER_ID_REQUIRED);
             }
             
             Long userId = Long.parseLong(userIdStr);
@@ -121,8 +174,7 @@ public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent,
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
             // Parse update request
-            @SuppressWarnings("unchecked")
-            Map<String, String> updates = objectMapper.readValue(input.getBody(), Map.class);
+            Map<String, String> updates = UPDATES_READER.readValue(input.getBody());
             
             boolean updated = false;
             
@@ -140,52 +192,95 @@ public class UserHandler implements RequestHandler<APIGatewayProxyRequestEvent,
                 user = userRepository.save(user);
             }
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Profile updated successfully");
-            response.put("user", createUserResponse(user));
+            return createResponse(200, UPDATE_WRITER,
+                new ProfileUpdateResponse("Profile updated successfully", createUserResponse(user)));
             
-            return createResponse(200, response);
+        } catch (Exception e) {
+            return createResponse(400, errorBody("Unable to update profile: " + e.getMessage()));
+        }
+    }
+    
+    private UserResponse createUserResponse(User user) {
+        return new UserResponse(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getDisplayName(),
+            user.getProfileImageUrl(),
+            user.getCreatedAt(),
+            user.getUpdatedAt()
+        );
+    }
+    
+    /**
+     * Pushes the first-request code paths through class loading and the JIT ahead of time:
+     * Jackson for every request and response shape including java.time values, the route
+     * patterns, and the Postgres driver down to an open connection.
+     */
+    private void prime() {
+        try {
+            User user = new User();
+            user.setId(0L);
+            user.setUsername("priming");
+            user.setCreatedAt(LocalDateTime.now());
+            user.setUpdatedAt(LocalDateTime.now());
             
+            createResponse(200, UPDATE_WRITER, new ProfileUpdateResponse("priming", createUserResponse(user)));
+            createResponse(200, PROFILE_WRITER, new ProfileResponse(0L, "priming", null, null, null, user.getCreatedAt()));
+            createResponse(200, PUBLIC_PROFILE_WRITER, new PublicProfileResponse(0L, "priming", null, null, user.getCreatedAt()));
+            createResponse(400, errorBody("priming"));
+            UPDATES_READER.readValue("{\"displayName\":\"priming\"}");
+            
+            USER_PATH.matcher("/users/priming").matches();
+            Class.forName("org.postgresql.Driver");
         } catch (Exception e) {
-            return createResponse(400, createErrorResponse("Unable to update profile: " + e.getMessage()));
+            LambdaRuntime.getLogger().log("Priming incomplete: " + e.getMessage());
         }
+        primeDatabase();
     }
     
-    private Map<String, Object> createUserResponse(User user) {
-        Map<String, Object> userResponse = new HashMap<>();
-        userResponse.put("id", user.getId());
-        userResponse.put("username", user.getUsername());
-        userResponse.put("email", user.getEmail());
-        userResponse.put("displayName", user.getDisplayName());
-        userResponse.put("profileImageUrl", user.getProfileImageUrl());
-        userResponse.put("createdAt", user.getCreatedAt());
-        userResponse.put("updatedAt", user.getUpdatedAt());
-        return userResponse;
+    private void primeDatabase() {
+        if (System.getenv("DB_URL") == null) {
+            return;
+        }
+        try {
+            userRepository.findByUsername("");
+        } catch (RuntimeException e) {
+            LambdaRuntime.getLogger().log("Database priming failed: " + e.getMessage());
+        }
     }
     
-    private APIGatewayProxyResponseEvent createResponse(int statusCode, Object body) {
+    private static APIGatewayProxyResponseEvent createResponse(int statusCode, String body) {
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
         response.setStatusCode(statusCode);
-        
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", "application/json");
-        headers.put("Access-Control-Allow-Origin", "*");
-        headers.put("Access-Control-Allow-Headers", "Content-Type,Authorization");
-        headers.put("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS");
-        response.setHeaders(headers);
-        
+        response.setHeaders(HEADERS);
+        response.setBody(body);
+        return response;
+    }
+    
+    private static APIGatewayProxyResponseEvent createResponse(int statusCode, ObjectWriter writer, Object body) {
         try {
-            response.setBody(objectMapper.writeValueAsString(body));
-        } catch (Exception e) {
-            response.setBody("{\"error\":\"Failed to serialize response\"}");
+            return createResponse(statusCode, writer.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            return createResponse(statusCode, SERIALIZATION_FAILED);
+        }
+    }
+    
+    private static String errorBody(String message) {
+        try {
+            return ERROR_WRITER.writeValueAsString(new ErrorResponse(message));
+        } catch (JsonProcessingException e) {
+            return SERIALIZATION_FAILED;
         }
-        
-        return response;
     }
     
-    private Map<String, String> createErrorResponse(String message) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", message);
-        return error;
+    private record Route(
+        String method,
+        Predicate<String> path,
+        Function<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler
+    ) {
+        boolean matches(String method, String path) {
+            return this.method.equals(method) && this.path.test(path);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,3 @@
+package com.youtube.lambda.user.dto;
+
+public record ErrorResponse(String error) {}
@@ -0,0 +1,12 @@
+package com.youtube.lambda.user.dto;
+
+import java.time.LocalDateTime;
+
+public record ProfileResponse(
+    Long id,
+    String username,
+    String email,
+    String displayName,
+    String profileImageUrl,
+    LocalDateTime createdAt
+) {}
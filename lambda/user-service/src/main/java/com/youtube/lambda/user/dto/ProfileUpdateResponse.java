@@ -0,0 +1,3 @@
+package com.youtube.lambda.user.dto;
+
+public record ProfileUpdateResponse(String message, UserResponse user) {}
@@ -0,0 +1,11 @@
+package com.youtube.lambda.user.dto;
+
+import java.time.LocalDateTime;
+
+public record PublicProfileResponse(
+    Long id,
+    String username,
+    String displayName,
+    String profileImageUrl,
+    LocalDateTime createdAt
+) {}
@@ -0,0 +1,13 @@
+package com.youtube.lambda.user.dto;
+
+import java.time.LocalDateTime;
+
+public record UserResponse(
+    Long id,
+    String username,
+    String email,
+    String displayName,
+    String profileImageUrl,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {}
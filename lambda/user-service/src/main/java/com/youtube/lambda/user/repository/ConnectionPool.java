@@ -0,0 +1,181 @@
+package com.youtube.lambda.user.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A few JDBC connections kept open for the life of the Lambda container, so warm invocations
+ * skip the TCP, TLS and authentication handshakes. Each connection keeps its prepared statements
+ * open and hands them back out by SQL text. Connections idle across a freeze are pinged before
+ * reuse and replaced if the server or a NAT dropped them in the meantime.
+ */
+public class ConnectionPool {
+
+    // Warm invocations arrive within milliseconds of each other; longer gaps usually mean the container was frozen
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 5_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int DEFAULT_MAX_IDLE = 2;
+
+    private final String url;
+    private final Properties properties = new Properties();
+    private final int maxIdle;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+    public ConnectionPool(String url, String username, String password, int maxIdle) {
+        this.url = url;
+        this.maxIdle = maxIdle;
+        if (username != null) {
+            properties.setProperty("user", username);
+        }
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        // Statements live as long as the connection, so prepare them server-side on first use
+        properties.setProperty("prepareThreshold", "1");
+        properties.setProperty("tcpKeepAlive", "true");
+    }
+
+    public static ConnectionPool fromEnvironment() {
+        String maxIdle = System.getenv("DB_POOL_SIZE");
+        return new ConnectionPool(
+            System.getenv("DB_URL"),
+            System.getenv("DB_USERNAME"),
+            System.getenv("DB_PASSWORD"),
+            maxIdle != null ? Integer.parseInt(maxIdle) : DEFAULT_MAX_IDLE
+        );
+    }
+
+    public <T> T execute(SqlWork<T> work) {
+        PooledConnection conn;
+        try {
+            conn = borrow();
+        } catch (SQLException e) {
+            throw new RuntimeException("Database error", e);
+        }
+
+        boolean broken = false;
+        try {
+            return work.run(conn);
+        } catch (SQLException e) {
+            broken = isConnectionFailure(conn, e);
+            throw new RuntimeException("Database error", e);
+        } finally {
+            if (broken) {
+                conn.close();
+            } else {
+                release(conn);
+            }
+        }
+    }
+
+    public void close() {
+        synchronized (idle) {
+            PooledConnection conn;
+            while ((conn = idle.pollFirst()) != null) {
+                conn.close();
+            }
+        }
+    }
+
+    private PooledConnection borrow() throws SQLException {
+        while (true) {
+            PooledConnection conn;
+            synchronized (idle) {
+                conn = idle.pollFirst();
+            }
+
+            if (conn == null) {
+                return new PooledConnection(DriverManager.getConnection(url, properties));
+            }
+            if (conn.isUsable()) {
+                return conn;
+            }
+            conn.close();
+        }
+    }
+
+    private void release(PooledConnection conn) {
+        conn.lastUsed = System.currentTimeMillis();
+        synchronized (idle) {
+            // Most recently used first, so the hottest connection is the one handed out next
+            if (idle.size() < maxIdle) {
+                idle.addFirst(conn);
+                return;
+            }
+        }
+        conn.close();
+    }
+
+    private boolean isConnectionFailure(PooledConnection conn, SQLException e) {
+        if (e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+            return true;
+        }
+        try {
+            return conn.connection.isClosed();
+        } catch (SQLException closed) {
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(PooledConnection conn) throws SQLException;
+    }
+
+    public static final class PooledConnection {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt == null || stmt.isClosed()) {
+                stmt = connection.prepareStatement(sql);
+                statements.put(sql, stmt);
+            } else {
+                stmt.clearParameters();
+            }
+            return stmt;
+        }
+
+        private boolean isUsable() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                return System.currentTimeMillis() - lastUsed < VALIDATE_AFTER_IDLE_MILLIS
+                    || connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void close() {
+            for (PreparedStatement stmt : statements.values()) {
+                try {
+                    stmt.close();
+                } catch (SQLException ignored) {
+                    // The connection is going away regardless
+                }
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Already broken; nothing left to release
+            }
+        }
+    }
+}
@@ -7,85 +7,69 @@ import java.util.Optional;
 
 public class UserRepository {
     
-    private final String dbUrl;
-    private final String dbUsername;
-    private final String dbPassword;
+    private static final String USER_COLUMNS =
+        "id, username, email, password, display_name, profile_image_url, created_at, updated_at";
+    
+    private static final String FIND_BY_ID = "SELECT " + USER_COLUMNS + " FROM users WHERE id = ?";
+    private static final String FIND_BY_USERNAME = "SELECT " + USER_COLUMNS + " FROM users WHERE username = ?";
+    private static final String UPDATE =
+        "UPDATE users SET display_name = ?, profile_image_url = ?, updated_at = ? WHERE id = ?";
+    
+    private final ConnectionPool connectionPool;
     
     public UserRepository() {
-        this.dbUrl = System.getenv("DB_URL");
-        this.dbUsername = System.getenv("DB_USERNAME");
-        this.dbPassword = System.getenv("DB_PASSWORD");
+        this(ConnectionPool.fromEnvironment());
     }
     
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(dbUrl, dbUsername, dbPassword);
+    public UserRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
     
     public Optional<User> findById(Long id) {
-        String sql = "SELECT * FROM users WHERE id = ?";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        return connectionPool.execute(conn -> {
+            PreparedStatement stmt = conn.prepare(FIND_BY_ID);
             stmt.setLong(1, id);
-            ResultSet rs = stmt.executeQuery();
             
-            if (rs.next()) {
-                return Optional.of(mapResultSetToUser(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapResultSetToUser(rs)) : Optional.empty();
             }
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error", e);
-        }
-        
-        return Optional.empty();
+        });
     }
     
     public Optional<User> findByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE username = ?";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        return connectionPool.execute(conn -> {
+            PreparedStatement stmt = conn.prepare(FIND_BY_USERNAME);
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
             
-            if (rs.next()) {
-                return Optional.of(mapResultSetToUser(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapResultSetToUser(rs)) : Optional.empty();
             }
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error", e);
-        }
-        
-        return Optional.empty();
+        });
     }
     
     public User save(User user) {
-        String sql = "UPDATE users SET display_name = ?, profile_image_url = ?, updated_at = ? WHERE id = ?";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        int updatedRows = connectionPool.execute(conn -> {
+            PreparedStatement stmt = conn.prepare(UPDATE);
             stmt.setString(1, user.getDisplayName());
             stmt.setString(2, user.getProfileImageUrl());
             stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
             stmt.setLong(4, user.getId());
-            
-            int updatedRows = stmt.executeUpdate();
-            if (updatedRows == 0) {
-                throw new RuntimeException("User not found or update failed");
-            }
-            
-            user.setUpdatedAt(LocalDateTime.now());
-            
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error", e);
+            return stmt.executeUpdate();
+        });
+        
+        if (updatedRows == 0) {
+            throw new RuntimeException("User not found or update failed");
         }
         
+        user.setUpdatedAt(LocalDateTime.now());
         return user;
     }
     
+    // Drops pooled connections; the next query opens a fresh one
+    public void close() {
+        connectionPool.close();
+    }
+    
     private User mapResultSetToUser(ResultSet rs) throws SQLException {
         User user = new User();
         user.setId(rs.getLong("id"));
@@ -0,0 +1,110 @@
+package com.youtube.lambda.user;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Cold-start harness: constructs {@link UserHandler} the way the Lambda runtime does, then times
+ * two profile lookups against it in a fresh JVM. Run with {@code LAMBDA_PRIMING=false} to
+ * compare against an unprimed handler. The username looked up is the first argument, or
+ * {@code harness}; without {@code DB_URL} the lookups 404, but routing and the response path
+ * are still exercised.
+ * <p>
+ * Lives with the tests so it stays out of the deployed jar; {@code mvn package -Pappcds} packages it
+ * as the {@code -tests} jar and runs it to record which classes to archive.
+ */
+public class LocalInvoker {
+
+    public static void main(String[] args) {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        long start = System.nanoTime();
+        UserHandler handler = new UserHandler();
+        long init = System.nanoTime() - start;
+        long sinceJvmStart = System.currentTimeMillis() - jvmStart;
+
+        String path = "/users/" + (args.length > 0 ? args[0] : "harness");
+
+        start = System.nanoTime();
+        APIGatewayProxyResponseEvent first = handler.handleRequest(get(path), new LocalContext());
+        long firstInvocation = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        APIGatewayProxyResponseEvent second = handler.handleRequest(get(path), new LocalContext());
+        long secondInvocation = System.nanoTime() - start;
+
+        System.out.printf("priming=%s jvm_to_handler_ms=%d init_ms=%.1f first_ms=%.1f second_ms=%.1f first_status=%d second_status=%d%n",
+            !"false".equalsIgnoreCase(System.getenv("LAMBDA_PRIMING")),
+            sinceJvmStart,
+            init / 1e6,
+            firstInvocation / 1e6,
+            secondInvocation / 1e6,
+            first.getStatusCode(),
+            second.getStatusCode());
+    }
+
+    private static APIGatewayProxyRequestEvent get(String path) {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        event.setHttpMethod("GET");
+        event.setPath(path);
+        return event;
+    }
+
+    private static final class LocalContext implements Context {
+
+        private final String requestId = UUID.randomUUID().toString();
+
+        @Override
+        public String getAwsRequestId() { return requestId; }
+
+        @Override
+        public String getLogGroupName() { return "local"; }
+
+        @Override
+        public String getLogStreamName() { return "local"; }
+
+        @Override
+        public String getFunctionName() { return "user-service"; }
+
+        @Override
+        public String getFunctionVersion() { return "$LATEST"; }
+
+        @Override
+        public String getInvokedFunctionArn() { return "local"; }
+
+        @Override
+        public CognitoIdentity getIdentity() { return null; }
+
+        @Override
+        public ClientContext getClientContext() { return null; }
+
+        @Override
+        public int getRemainingTimeInMillis() { return 30_000; }
+
+        @Override
+        public int getMemoryLimitInMB() { return 512; }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                    // Request logging would only add noise to the timings
+                }
+
+                @Override
+                public void log(byte[] message) {
+                    log(new String(message, StandardCharsets.UTF_8));
+                }
+            };
+        }
+    }
+}
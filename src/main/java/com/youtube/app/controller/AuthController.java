@@ -3,9 +3,13 @@ package com.youtube.app.controller;
 import com.youtube.app.dto.LoginRequest;
 import com.youtube.app.dto.RegisterRequest;
 import com.youtube.app.model.User;
+import com.youtube.app.security.BoundedPasswordEncoder.HashingSaturatedException;
+import com.youtube.app.security.TokenService;
 import com.youtube.app.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -26,6 +30,9 @@ public class AuthController {
     @Autowired
     private AuthenticationManager authenticationManager;
     
+    @Autowired
+    private TokenService tokenService;
+    
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
         try {
@@ -41,6 +48,8 @@ public class AuthController {
             response.put("username", user.getUsername());
             
             return ResponseEntity.ok(response);
+        } catch (HashingSaturatedException e) {
+            return saturated(e);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -59,14 +68,20 @@ public class AuthController {
             );
             
             User user = (User) authentication.getPrincipal();
+            TokenService.IssuedToken token = tokenService.issue(user);
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Login successful");
             response.put("userId", user.getId());
             response.put("username", user.getUsername());
             response.put("email", user.getEmail());
+            response.put("token", token.token());
+            response.put("tokenType", "Bearer");
+            response.put("expiresIn", token.expiresIn().toSeconds());
             
             return ResponseEntity.ok(response);
+        } catch (HashingSaturatedException e) {
+            return saturated(e);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Invalid username or password");
@@ -82,4 +97,21 @@ public class AuthController {
         response.put("available", !exists);
         return ResponseEntity.ok(response);
     }
+    
+    @GetMapping("/check-email")
+    public ResponseEntity<?> checkEmail(@RequestParam String email) {
+        boolean exists = userService.existsByEmail(email);
+        Map<String, Object> response = new HashMap<>();
+        response.put("exists", exists);
+        response.put("available", !exists);
+        return ResponseEntity.ok(response);
+    }
+    
+    private ResponseEntity<?> saturated(HashingSaturatedException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+            .body(error);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+package com.youtube.app.controller;
+
+import com.youtube.app.model.User;
+import com.youtube.app.repository.projection.ChannelSummary;
+import com.youtube.app.repository.projection.UserProfile;
+import com.youtube.app.repository.projection.VideoSummary;
+import com.youtube.app.service.ChannelPageService;
+import com.youtube.app.service.SubscriptionService;
+import com.youtube.app.service.VideoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/channels")
+@CrossOrigin(origins = "*")
+public class ChannelController {
+
+    @Autowired
+    private ChannelPageService channelPageService;
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @GetMapping("/{username}")
+    public ResponseEntity<?> getChannelPage(
+        @PathVariable String username,
+        @RequestParam(defaultValue = "12") int videos
+    ) {
+        if (videos < 1 || videos > 50) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid videos");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        ChannelPageService.ChannelPage page;
+        try {
+            page = channelPageService.getPage(username, videos);
+        } catch (ChannelPageService.DeadlineExceededException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("owner", createOwner(page.owner()));
+        response.put("channel", page.channel() != null ? createChannel(page.channel()) : null);
+        if (page.videos() != null) {
+            List<Map<String, Object>> content = new ArrayList<>();
+            for (VideoSummary video : page.videos().videos()) {
+                content.add(createVideoSummary(video));
+            }
+            response.put("videos", content);
+            response.put("nextCursor", page.videos().nextCursor());
+        }
+        response.put("videoCount", page.videoCount());
+        // Parts left out because they failed or missed the deadline; clients may retry them individually
+        response.put("missing", page.missing());
+        return ResponseEntity.ok(response);
+    }
+
+    // Continues the page's video list from its nextCursor
+    @GetMapping("/{username}/videos")
+    public ResponseEntity<?> listVideos(
+        @PathVariable String username,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        if (size < 1 || size > 100) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid size");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        try {
+            VideoService.VideoWindow window = videoService.listByUploader(username, cursor, size);
+
+            List<Map<String, Object>> content = new ArrayList<>();
+            for (VideoSummary video : window.videos()) {
+                content.add(createVideoSummary(video));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", content);
+            response.put("nextCursor", window.nextCursor());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/{username}/subscription")
+    public ResponseEntity<?> getSubscription(@PathVariable String username, Authentication authentication) {
+        try {
+            User subscriber = authentication != null && authentication.getPrincipal() instanceof User user ? user : null;
+            return ResponseEntity.ok(createSubscriptionResponse(subscriptionService.getState(username, subscriber)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping("/{username}/subscription")
+    public ResponseEntity<?> subscribe(@PathVariable String username, Authentication authentication) {
+        try {
+            User subscriber = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(createSubscriptionResponse(subscriptionService.subscribe(username, subscriber)));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{username}/subscription")
+    public ResponseEntity<?> unsubscribe(@PathVariable String username, Authentication authentication) {
+        try {
+            User subscriber = (User) authentication.getPrincipal();
+            return ResponseEntity.ok(createSubscriptionResponse(subscriptionService.unsubscribe(username, subscriber)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private Map<String, Object> createSubscriptionResponse(SubscriptionService.SubscriptionState state) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("subscribed", state.subscribed());
+        response.put("subscriberCount", state.subscriberCount());
+        return response;
+    }
+
+    private Map<String, Object> createOwner(UserProfile owner) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", owner.id());
+        response.put("username", owner.username());
+        response.put("displayName", owner.displayName());
+        response.put("profileImageUrl", owner.profileImageUrl());
+        response.put("createdAt", owner.createdAt());
+        return response;
+    }
+
+    private Map<String, Object> createChannel(ChannelSummary channel) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", channel.id());
+        response.put("name", channel.name());
+        response.put("description", channel.description());
+        response.put("bannerImageUrl", channel.bannerImageUrl());
+        response.put("subscriberCount", channel.subscriberCount());
+        response.put("totalViews", channel.totalViews());
+        response.put("createdAt", channel.createdAt());
+        return response;
+    }
+
+    // Uploader details are the channel owner's, already at the top level of the page
+    private Map<String, Object> createVideoSummary(VideoSummary video) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("id", video.id());
+        summary.put("title", video.title());
+        summary.put("thumbnailUrl", video.thumbnailUrl());
+        summary.put("durationSeconds", video.durationSeconds());
+        summary.put("viewCount", videoService.getViewCount(video));
+        summary.put("createdAt", video.createdAt());
+        return summary;
+    }
+}
@@ -0,0 +1,69 @@
+package com.youtube.app.controller;
+
+import com.youtube.app.service.ThumbnailStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/thumbnails")
+@CrossOrigin(origins = "*")
+public class ThumbnailController {
+
+    // The URL names the content, so a response can never go stale
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    @Autowired
+    private ThumbnailStore thumbnailStore;
+
+    @GetMapping("/{hash}")
+    public ResponseEntity<byte[]> getThumbnail(
+        @PathVariable String hash,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        if (!ThumbnailStore.isHash(hash)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + hash + "\"";
+        if (matches(ifNoneMatch, etag)) {
+            // Answered from the hash alone; the image is never read
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(IMMUTABLE).build();
+        }
+
+        ThumbnailStore.Thumbnail thumbnail = thumbnailStore.get(hash);
+        if (thumbnail == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(IMMUTABLE)
+            .contentType(MediaType.parseMediaType(thumbnail.contentType()))
+            .contentLength(thumbnail.data().length)
+            .body(thumbnail.data());
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
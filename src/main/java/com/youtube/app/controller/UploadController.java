@@ -0,0 +1,130 @@
+package com.youtube.app.controller;
+
+import com.youtube.app.dto.CreateUploadRequest;
+import com.youtube.app.model.UploadSession;
+import com.youtube.app.model.User;
+import com.youtube.app.model.Video;
+import com.youtube.app.service.UploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/uploads")
+@CrossOrigin(origins = "*", exposedHeaders = UploadController.UPLOAD_OFFSET)
+public class UploadController {
+
+    static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    @Autowired
+    private UploadService uploadService;
+
+    @PostMapping
+    public ResponseEntity<?> createUpload(
+        Authentication authentication,
+        @Valid @RequestBody CreateUploadRequest request
+    ) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            UploadSession session = uploadService.createSession(
+                user.getId(),
+                request.getTitle(),
+                request.getDescription(),
+                request.getFileName(),
+                request.getTotalSize()
+            );
+
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .header(UPLOAD_OFFSET, "0")
+                .body(createSessionResponse(session));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> getUpload(Authentication authentication, @PathVariable String uploadId) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            UploadSession session = uploadService.getSession(uploadId, user.getId());
+
+            return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(session.getBytesReceived()))
+                .body(createSessionResponse(session));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{uploadId}")
+    public ResponseEntity<?> uploadChunk(
+        Authentication authentication,
+        @PathVariable String uploadId,
+        @RequestHeader(UPLOAD_OFFSET) long offset,
+        HttpServletRequest request
+    ) throws IOException {
+        try {
+            User user = (User) authentication.getPrincipal();
+            long newOffset = uploadService.appendChunk(
+                uploadId,
+                user.getId(),
+                offset,
+                request.getContentLengthLong(),
+                request.getInputStream()
+            );
+
+            return ResponseEntity.noContent()
+                .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                .build();
+        } catch (UploadService.OffsetMismatchException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(UPLOAD_OFFSET, String.valueOf(e.getCurrentOffset()))
+                .body(error);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(Authentication authentication, @PathVariable String uploadId) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            Video video = uploadService.complete(uploadId, user.getId());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Upload completed successfully");
+            response.put("videoId", video.getId());
+            response.put("status", video.getStatus());
+            response.put("fileSize", video.getFileSize());
+
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    private Map<String, Object> createSessionResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("uploadId", session.getId());
+        response.put("offset", session.getBytesReceived());
+        response.put("totalSize", session.getTotalSize());
+        response.put("complete", session.isComplete());
+        return response;
+    }
+}
@@ -1,6 +1,7 @@
 package com.youtube.app.controller;
 
 import com.youtube.app.model.User;
+import com.youtube.app.repository.projection.UserProfile;
 import com.youtube.app.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -21,7 +22,8 @@ public class UserController {
     @GetMapping("/profile")
     public ResponseEntity<?> getCurrentUserProfile(Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            // The token principal carries only id, username and email
+            User user = userService.findByUsername(authentication.getName());
             
             Map<String, Object> response = new HashMap<>();
             response.put("id", user.getId());
@@ -42,14 +44,14 @@ public class UserController {
     @GetMapping("/{username}")
     public ResponseEntity<?> getUserProfile(@PathVariable String username) {
         try {
-            User user = userService.findByUsername(username);
+            UserProfile profile = userService.getProfile(username);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("id", user.getId());
-            response.put("username", user.getUsername());
-            response.put("displayName", user.getDisplayName());
-            response.put("profileImageUrl", user.getProfileImageUrl());
-            response.put("createdAt", user.getCreatedAt());
+            response.put("id", profile.id());
+            response.put("username", profile.username());
+            response.put("displayName", profile.displayName());
+            response.put("profileImageUrl", profile.profileImageUrl());
+            response.put("createdAt", profile.createdAt());
             
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -65,15 +67,11 @@ public class UserController {
         @RequestBody Map<String, String> updates
     ) {
         try {
-            User user = (User) authentication.getPrincipal();
-            
-            if (updates.containsKey("displayName")) {
-                user.setDisplayName(updates.get("displayName"));
-            }
-            
-            if (updates.containsKey("profileImageUrl")) {
-                user.setProfileImageUrl(updates.get("profileImageUrl"));
-            }
+            User user = userService.updateProfile(
+                authentication.getName(),
+                updates.get("displayName"),
+                updates.get("profileImageUrl")
+            );
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Profile updated successfully");
@@ -86,4 +84,23 @@ public class UserController {
             return ResponseEntity.badRequest().body(error);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Deactivates the caller's account: it can no longer log in, and tokens already issued stop working.
+     */
+    @DeleteMapping("/profile")
+    public ResponseEntity<?> deactivate(Authentication authentication) {
+        try {
+            userService.setEnabled(authentication.getName(), false);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Account deactivated");
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Unable to deactivate account");
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.youtube.app.controller;
+
+import com.youtube.app.model.User;
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.projection.VideoSummary;
+import com.youtube.app.search.InvertedIndex;
+import com.youtube.app.service.ReactionService;
+import com.youtube.app.service.SeekIndex;
+import com.youtube.app.service.ThumbnailStore;
+import com.youtube.app.service.TrendingService;
+import com.youtube.app.service.VideoSearchService;
+import com.youtube.app.service.VideoService;
+import com.youtube.app.service.VideoStreamService;
+import com.youtube.app.service.VideoStreamService.ByteRange;
+import com.youtube.app.service.VideoStreamService.StreamableVideo;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/videos")
+@CrossOrigin(origins = "*")
+public class VideoController {
+
+    // Tomcat's NIO connector hands these to sendfile() once the servlet returns
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private VideoStreamService videoStreamService;
+
+    @Autowired
+    private ReactionService reactionService;
+
+    @Autowired
+    private VideoSearchService videoSearchService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private ThumbnailStore thumbnailStore;
+
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrending(
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) Long snapshot
+    ) {
+        if (page < 0 || size < 1 || size > 100) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid page or size");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        TrendingService.TrendingPage trending = trendingService.getPage(snapshot, page, size);
+
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (VideoSummary video : videoService.findReadyInOrder(trending.videoIds())) {
+            content.add(createVideoSummary(video));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("page", page);
+        response.put("size", size);
+        response.put("totalElements", trending.total());
+        response.put("snapshot", trending.snapshotId());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping
+    public ResponseEntity<?> listVideos(
+        @RequestParam(defaultValue = "latest") String sort,
+        @RequestParam(required = false) String uploader,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        if (size < 1 || size > 100) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid size");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        try {
+            VideoService.VideoWindow window;
+            if (uploader != null) {
+                window = videoService.listByUploader(uploader, cursor, size);
+            } else if ("popular".equals(sort)) {
+                window = videoService.listMostViewed(cursor, size);
+            } else {
+                window = videoService.listLatest(cursor, size);
+            }
+
+            List<Map<String, Object>> content = new ArrayList<>();
+            for (VideoSummary video : window.videos()) {
+                content.add(createVideoSummary(video));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", content);
+            response.put("nextCursor", window.nextCursor());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "all") String mode,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        if (page < 0 || size < 1 || size > 100) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Invalid page or size");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        InvertedIndex.SearchHits hits;
+        try {
+            hits = videoSearchService.search(q, !"any".equalsIgnoreCase(mode), page, size);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (VideoSummary video : videoService.findReadyInOrder(hits.videoIds())) {
+            content.add(createVideoSummary(video));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", content);
+        response.put("page", page);
+        response.put("size", size);
+        response.put("totalElements", hits.total());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getVideo(@PathVariable Long id) {
+        try {
+            Video video = videoService.findReadyVideo(id);
+            ReactionService.ReactionSummary reactions = reactionService.getSummary(video.getId(), null);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", video.getId());
+            response.put("title", video.getTitle());
+            response.put("description", video.getDescription());
+            response.put("thumbnailUrl", video.getThumbnailUrl());
+            response.put("durationSeconds", video.getDurationSeconds());
+            response.put("viewCount", videoService.getViewCount(video));
+            response.put("likeCount", reactions.likeCount());
+            response.put("dislikeCount", reactions.dislikeCount());
+            response.put("createdAt", video.getCreatedAt());
+
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Maps a time to the byte offset of the keyframe at or before it, so a player can seek with a
+     * single {@code Range: bytes=<offset>-} request on the stream.
+     */
+    @GetMapping("/{id}/seek")
+    public ResponseEntity<?> seek(@PathVariable Long id, @RequestParam("t") double seconds) {
+        try {
+            SeekIndex.SeekPoint point = videoService.findSeekPoint(id, Math.max(0, seconds));
+            if (point == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("time", point.millis() / 1000.0);
+            response.put("offset", point.offset());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/reaction")
+    public ResponseEntity<?> getReaction(@PathVariable Long id, Authentication authentication) {
+        try {
+            Video video = videoService.findReadyVideo(id);
+            Long userId = authentication != null && authentication.getPrincipal() instanceof User user
+                ? user.getId()
+                : null;
+
+            return ResponseEntity.ok(createReactionResponse(reactionService.getSummary(video.getId(), userId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping("/{id}/reaction")
+    public ResponseEntity<?> react(
+        @PathVariable Long id,
+        Authentication authentication,
+        @RequestBody Map<String, String> body
+    ) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            Video video = videoService.findReadyVideo(id);
+            ReactionService.Reaction reaction = ReactionService.Reaction.valueOf(body.getOrDefault("reaction", "NONE"));
+
+            return ResponseEntity.ok(createReactionResponse(reactionService.react(video.getId(), user.getId(), reaction)));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Unable to update reaction");
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteVideo(@PathVariable Long id, Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            videoService.deleteVideo(id, user.getId());
+
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Video deleted successfully");
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping(value = "/{id}/thumbnail", consumes = { "image/jpeg", "image/png", "image/webp" })
+    public ResponseEntity<?> uploadThumbnail(
+        @PathVariable Long id,
+        Authentication authentication,
+        @RequestBody byte[] image
+    ) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            // Packs are append-only, so nothing is stored for a video the caller cannot change
+            videoService.checkOwner(id, user.getId());
+            String hash = thumbnailStore.put(image);
+            Video video = videoService.updateThumbnail(id, user.getId(), "/api/thumbnails/" + hash);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", video.getId());
+            response.put("thumbnailUrl", video.getThumbnailUrl());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/stream")
+    public void stream(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StreamableVideo video;
+        try {
+            video = videoStreamService.findStreamableVideo(id);
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String contentType = MediaTypeFactory.getMediaType(video.path().getFileName().toString())
+            .orElse(MediaType.APPLICATION_OCTET_STREAM)
+            .toString();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, video.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, video.lastModified());
+
+        List<ByteRange> ranges = isRangeApplicable(request, video)
+            ? videoStreamService.parseRanges(request.getHeader(HttpHeaders.RANGE), video.length())
+            : null;
+
+        boolean startsPlayback = ranges == null || (!ranges.isEmpty() && ranges.get(0).start() == 0);
+        if (startsPlayback && "GET".equals(request.getMethod())) {
+            // Seeks and buffering fetch later ranges; only the opening request counts as a view
+            videoService.recordView(video.id());
+        }
+
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            sendRegion(request, response, video, new ByteRange(0, video.length() - 1));
+        } else if (ranges.isEmpty()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + video.length());
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        } else if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, video.length()));
+            sendRegion(request, response, video, range);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            sendMultipart(request, response, video, ranges, contentType);
+        }
+    }
+
+    private boolean isRangeApplicable(HttpServletRequest request, StreamableVideo video) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // If-Range requires a strong comparison, so weak validators never match
+            return ifRange.equals(video.etag());
+        }
+
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since >= 0 && video.lastModified() / 1000 <= since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void sendRegion(HttpServletRequest request, HttpServletResponse response,
+                            StreamableVideo video, ByteRange range) throws IOException {
+        response.setContentLengthLong(range.length());
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        // sendfile already reads from the page cache; the opening chunks are cheaper still from memory,
+        // so playback starts (plain GETs and bytes=0- included) are served from the cache
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && !videoStreamService.startsInCache(range)) {
+            request.setAttribute(SENDFILE_FILENAME, video.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            videoStreamService.recordSendfile(range);
+            return;
+        }
+
+        videoStreamService.transfer(video.path(), range.start(), range.length(), response.getOutputStream());
+    }
+
+    private void sendMultipart(HttpServletRequest request, HttpServletResponse response, StreamableVideo video,
+                               List<ByteRange> ranges, String contentType) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        byte[][] partHeaders = new byte[ranges.size()][];
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        long contentLength = closing.length;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeaders[i] = ("\r\n--" + boundary + "\r\n" +
+                HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n" +
+                HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, video.length()) + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + range.length();
+        }
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            out.write(partHeaders[i]);
+            videoStreamService.transfer(video.path(), range.start(), range.length(), out);
+        }
+        out.write(closing);
+    }
+
+    private Map<String, Object> createVideoSummary(VideoSummary video) {
+        Map<String, Object> uploader = new HashMap<>();
+        uploader.put("id", video.uploaderId());
+        uploader.put("username", video.uploaderUsername());
+        uploader.put("displayName", video.uploaderDisplayName());
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("id", video.id());
+        summary.put("title", video.title());
+        summary.put("thumbnailUrl", video.thumbnailUrl());
+        summary.put("durationSeconds", video.durationSeconds());
+        summary.put("viewCount", videoService.getViewCount(video));
+        summary.put("createdAt", video.createdAt());
+        summary.put("uploader", uploader);
+        return summary;
+    }
+
+    private Map<String, Object> createReactionResponse(ReactionService.ReactionSummary summary) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("likeCount", summary.likeCount());
+        response.put("dislikeCount", summary.dislikeCount());
+        response.put("userReaction", summary.userReaction());
+        return response;
+    }
+
+    private String contentRange(ByteRange range, long length) {
+        return "bytes " + range.start() + "-" + range.end() + "/" + length;
+    }
+}
@@ -0,0 +1,45 @@
+package com.youtube.app.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+public class CreateUploadRequest {
+    
+    @NotBlank(message = "Title is required")
+    @Size(max = 255, message = "Title must be less than 255 characters")
+    private String title;
+    
+    @Size(max = 2000, message = "Description must be less than 2000 characters")
+    private String description;
+    
+    @NotBlank(message = "File name is required")
+    private String fileName;
+    
+    @NotNull(message = "Total size is required")
+    @Positive(message = "Total size must be positive")
+    private Long totalSize;
+    
+    // Constructors
+    public CreateUploadRequest() {}
+    
+    public CreateUploadRequest(String title, String fileName, Long totalSize) {
+        this.title = title;
+        this.fileName = fileName;
+        this.totalSize = totalSize;
+    }
+    
+    // Getters and Setters
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    
+    public Long getTotalSize() { return totalSize; }
+    public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+}
@@ -5,8 +5,12 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
+/**
+ * A user's channel. Its videos are deliberately not mapped as a collection: a channel can hold
+ * any number of them, so they are paged through {@code VideoRepository} by uploader instead.
+ * {@code subscriberCount} and {@code totalViews} are maintained by {@code ChannelStatsService}.
+ */
 @Entity
 @Table(name = "channels")
 public class Channel {
@@ -37,9 +41,6 @@ public class Channel {
     @JoinColumn(name = "user_id", nullable = false)
     private User owner;
     
-    @OneToMany(mappedBy = "channel", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<Video> videos;
-    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -87,9 +88,6 @@ public class Channel {
     public User getOwner() { return owner; }
     public void setOwner(User owner) { this.owner = owner; }
     
-    public List<Video> getVideos() { return videos; }
-    public void setVideos(List<Video> videos) { this.videos = videos; }
-    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
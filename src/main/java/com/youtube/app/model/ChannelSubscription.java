@@ -0,0 +1,47 @@
+package com.youtube.app.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's subscription to a channel. Rows are written with plain SQL by
+ * {@code SubscriptionService}; the unique constraint makes subscribing idempotent.
+ */
+@Entity
+@Table(name = "channel_subscriptions", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_channel_subscriptions_channel_user", columnNames = {"channel_id", "user_id"})
+}, indexes = {
+    @Index(name = "idx_channel_subscriptions_user_id", columnList = "user_id")
+})
+public class ChannelSubscription {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "channel_id", nullable = false)
+    private Long channelId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public ChannelSubscription() {}
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getChannelId() { return channelId; }
+    public void setChannelId(Long channelId) { this.channelId = channelId; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
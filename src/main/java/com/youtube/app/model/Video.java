@@ -7,7 +7,12 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "videos")
+@Table(name = "videos", indexes = {
+    @Index(name = "idx_videos_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_videos_status_created_at_id", columnList = "status, created_at, id"),
+    @Index(name = "idx_videos_status_view_count_id", columnList = "status, view_count, id"),
+    @Index(name = "idx_videos_user_status_created_at_id", columnList = "user_id, status, created_at, id")
+})
 public class Video {
     
     @Id
@@ -35,6 +40,10 @@ public class Video {
     @Column(name = "file_size")
     private Long fileSize;
     
+    // SHA-256 of the file, a key into video_blobs; null for files stored before the blob store
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @Column(name = "view_count")
     private Long viewCount = 0L;
     
@@ -104,6 +113,9 @@ public class Video {
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
     
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    
     public Long getViewCount() { return viewCount; }
     public void setViewCount(Long viewCount) { this.viewCount = viewCount; }
     
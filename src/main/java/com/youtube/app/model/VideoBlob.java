@@ -0,0 +1,50 @@
+package com.youtube.app.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored video file, keyed by the SHA-256 of its content and shared by every video
+ * uploaded with the same bytes. Rows are maintained with plain SQL by {@code VideoBlobStore};
+ * {@code refCount} is the number of non-deleted videos pointing at the file.
+ */
+@Entity
+@Table(name = "video_blobs")
+public class VideoBlob {
+    
+    @Id
+    @Column(length = 64)
+    private String hash;
+    
+    @Column(name = "file_path", nullable = false)
+    private String filePath;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    @Column(name = "ref_count", nullable = false)
+    private Long refCount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public VideoBlob() {}
+    
+    // Getters and Setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+    
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+    
+    public Long getSize() { return size; }
+    public void setSize(Long size) { this.size = size; }
+    
+    public Long getRefCount() { return refCount; }
+    public void setRefCount(Long refCount) { this.refCount = refCount; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
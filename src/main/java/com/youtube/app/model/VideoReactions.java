@@ -0,0 +1,55 @@
+package com.youtube.app.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Serialized Roaring bitmaps of the user ids that liked and disliked a video.
+ */
+@Entity
+@Table(name = "video_reactions")
+public class VideoReactions {
+    
+    @Id
+    @Column(name = "video_id")
+    private Long videoId;
+    
+    // Unbounded: a popular video's bitmap runs to megabytes, and a bare byte[] would get varbinary(255) on H2
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] likes;
+    
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] dislikes;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public VideoReactions() {}
+    
+    public VideoReactions(Long videoId, byte[] likes, byte[] dislikes) {
+        this.videoId = videoId;
+        this.likes = likes;
+        this.dislikes = dislikes;
+    }
+    
+    // Getters and Setters
+    public Long getVideoId() { return videoId; }
+    public void setVideoId(Long videoId) { this.videoId = videoId; }
+    
+    public byte[] getLikes() { return likes; }
+    public void setLikes(byte[] likes) { this.likes = likes; }
+    
+    public byte[] getDislikes() { return dislikes; }
+    public void setDislikes(byte[] dislikes) { this.dislikes = dislikes; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
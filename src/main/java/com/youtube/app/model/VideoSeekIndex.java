@@ -0,0 +1,54 @@
+package com.youtube.app.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyframe times and byte offsets of a video's file, encoded by {@code SeekIndex}.
+ */
+@Entity
+@Table(name = "video_seek_index")
+public class VideoSeekIndex {
+    
+    @Id
+    @Column(name = "video_id")
+    private Long videoId;
+    
+    @Column(nullable = false)
+    private byte[] entries;
+    
+    @Column(name = "keyframe_count", nullable = false)
+    private Integer keyframeCount;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public VideoSeekIndex() {}
+    
+    public VideoSeekIndex(Long videoId, byte[] entries, Integer keyframeCount) {
+        this.videoId = videoId;
+        this.entries = entries;
+        this.keyframeCount = keyframeCount;
+    }
+    
+    // Getters and Setters
+    public Long getVideoId() { return videoId; }
+    public void setVideoId(Long videoId) { this.videoId = videoId; }
+    
+    public byte[] getEntries() { return entries; }
+    public void setEntries(byte[] entries) { this.entries = entries; }
+    
+    public Integer getKeyframeCount() { return keyframeCount; }
+    public void setKeyframeCount(Integer keyframeCount) { this.keyframeCount = keyframeCount; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
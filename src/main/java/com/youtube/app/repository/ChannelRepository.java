@@ -2,7 +2,10 @@ package com.youtube.app.repository;
 
 import com.youtube.app.model.Channel;
 import com.youtube.app.model.User;
+import com.youtube.app.repository.projection.ChannelSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,5 +17,10 @@ public interface ChannelRepository extends JpaRepository<Channel, Long> {
     
     Optional<Channel> findByName(String name);
     
+    @Query("SELECT new com.youtube.app.repository.projection.ChannelSummary(c.id, c.name, c.description, " +
+           "c.bannerImageUrl, c.subscriberCount, c.totalViews, c.createdAt) " +
+           "FROM Channel c JOIN c.owner u WHERE u.username = :username")
+    Optional<ChannelSummary> findSummaryByOwnerUsername(@Param("username") String username);
+    
     boolean existsByName(String name);
 }
\ No newline at end of file
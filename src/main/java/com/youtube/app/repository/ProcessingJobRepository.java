@@ -0,0 +1,34 @@
+package com.youtube.app.repository;
+
+import com.youtube.app.model.ProcessingJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProcessingJobRepository extends JpaRepository<ProcessingJob, Long> {
+    
+    // Rows locked by another node's claim are skipped rather than waited on
+    @Query(value = "SELECT * FROM processing_jobs WHERE status = 'PENDING' AND run_at <= :now " +
+                   "ORDER BY run_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ProcessingJob> lockRunnable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM ProcessingJob j WHERE j.status = 'RUNNING' AND j.lockedAt < :expiredBefore")
+    List<ProcessingJob> lockExpired(@Param("expiredBefore") LocalDateTime expiredBefore);
+    
+    // Heartbeat from the node running the jobs; a lease already taken over by another node is left alone
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.lockedAt = :now WHERE j.id IN :ids AND j.lockedBy = :nodeId AND j.status = 'RUNNING'")
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+    
+    long countByStatus(ProcessingJob.JobStatus status);
+}
@@ -0,0 +1,32 @@
+package com.youtube.app.repository;
+
+import com.youtube.app.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    
+    Optional<UploadSession> findByIdAndUserId(String id, Long userId);
+    
+    List<UploadSession> findByUpdatedAtBefore(LocalDateTime cutoff);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.bytesReceived = :received, s.updatedAt = :now " +
+           "WHERE s.id = :id AND s.bytesReceived = :expected")
+    int advanceOffset(
+        @Param("id") String id,
+        @Param("expected") Long expected,
+        @Param("received") Long received,
+        @Param("now") LocalDateTime now
+    );
+}
@@ -1,9 +1,15 @@
 package com.youtube.app.repository;
 
 import com.youtube.app.model.User;
+import com.youtube.app.repository.projection.UserKeys;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,6 +19,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
     
+    @Query("SELECT new com.youtube.app.repository.projection.UserKeys(u.id, u.username, u.email, u.createdAt) " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserKeys> findKeysAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Keyset scan over (createdAt, id) topping up the availability filters
+    @Query("SELECT new com.youtube.app.repository.projection.UserKeys(u.id, u.username, u.email, u.createdAt) " +
+           "FROM User u WHERE u.createdAt > :since OR (u.createdAt = :since AND u.id > :afterId) " +
+           "ORDER BY u.createdAt, u.id")
+    List<UserKeys> findKeysCreatedSince(
+        @Param("since") LocalDateTime since,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
@@ -0,0 +1,21 @@
+package com.youtube.app.repository;
+
+import com.youtube.app.model.VideoReactions;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface VideoReactionsRepository extends JpaRepository<VideoReactions, Long> {
+    
+    // Ordered, so concurrent flushes on different nodes take the row locks in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM VideoReactions r WHERE r.videoId IN :videoIds ORDER BY r.videoId")
+    List<VideoReactions> lockAll(@Param("videoIds") Collection<Long> videoIds);
+}
@@ -2,36 +2,114 @@ package com.youtube.app.repository;
 
 import com.youtube.app.model.Video;
 import com.youtube.app.model.User;
-import org.springframework.data.domain.Page;
+import com.youtube.app.repository.projection.TrendingSeed;
+import com.youtube.app.repository.projection.VideoChannel;
+import com.youtube.app.repository.projection.VideoSummary;
+import com.youtube.app.search.IndexedVideo;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VideoRepository extends JpaRepository<Video, Long> {
     
-    List<Video> findByUploaderOrderByCreatedAtDesc(User uploader);
+    Optional<Video> findByIdAndStatus(Long id, Video.VideoStatus status);
     
-    Page<Video> findByStatusOrderByCreatedAtDesc(Video.VideoStatus status, Pageable pageable);
+    // Keyset listings: each page seeks past the last row instead of counting and skipping
+    @Query("SELECT new com.youtube.app.repository.projection.VideoSummary(v.id, v.title, v.thumbnailUrl, " +
+           "v.durationSeconds, v.viewCount, v.createdAt, u.id, u.username, u.displayName) " +
+           "FROM Video v JOIN v.uploader u WHERE v.status = :status " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<VideoSummary> findLatestBefore(
+        @Param("status") Video.VideoStatus status,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
     
-    @Query("SELECT v FROM Video v WHERE v.status = :status AND " +
-           "(LOWER(v.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(v.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Video> findByStatusAndTitleOrDescriptionContainingIgnoreCase(
+    @Query("SELECT new com.youtube.app.repository.projection.VideoSummary(v.id, v.title, v.thumbnailUrl, " +
+           "v.durationSeconds, v.viewCount, v.createdAt, u.id, u.username, u.displayName) " +
+           "FROM Video v JOIN v.uploader u WHERE v.status = :status " +
+           "AND (v.viewCount < :viewCount OR (v.viewCount = :viewCount AND v.id < :id)) " +
+           "ORDER BY v.viewCount DESC, v.id DESC")
+    List<VideoSummary> findMostViewedBefore(
         @Param("status") Video.VideoStatus status,
-        @Param("keyword") String keyword,
+        @Param("viewCount") Long viewCount,
+        @Param("id") Long id,
         Pageable pageable
     );
     
-    @Query("SELECT v FROM Video v WHERE v.status = :status ORDER BY v.viewCount DESC")
-    Page<Video> findByStatusOrderByViewCountDesc(
+    @Query("SELECT new com.youtube.app.repository.projection.VideoSummary(v.id, v.title, v.thumbnailUrl, " +
+           "v.durationSeconds, v.viewCount, v.createdAt, u.id, u.username, u.displayName) " +
+           "FROM Video v JOIN v.uploader u WHERE u.username = :username AND v.status = :status " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<VideoSummary> findByUploaderBefore(
+        @Param("username") String username,
         @Param("status") Video.VideoStatus status,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
         Pageable pageable
     );
     
+    // Cards for ids ranked elsewhere (search, trending); callers restore the ranking order
+    @Query("SELECT new com.youtube.app.repository.projection.VideoSummary(v.id, v.title, v.thumbnailUrl, " +
+           "v.durationSeconds, v.viewCount, v.createdAt, u.id, u.username, u.displayName) " +
+           "FROM Video v JOIN v.uploader u WHERE v.id IN :ids AND v.status = :status")
+    List<VideoSummary> findSummaries(
+        @Param("ids") Collection<Long> ids,
+        @Param("status") Video.VideoStatus status
+    );
+    
+    // Keyset scan over (updatedAt, id) feeding the search index
+    @Query("SELECT new com.youtube.app.search.IndexedVideo(v.id, v.title, v.description, v.status, v.updatedAt) " +
+           "FROM Video v WHERE v.updatedAt > :since OR (v.updatedAt = :since AND v.id > :afterId) " +
+           "ORDER BY v.updatedAt, v.id")
+    List<IndexedVideo> findChangedSince(
+        @Param("since") LocalDateTime since,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @Query("SELECT new com.youtube.app.repository.projection.TrendingSeed(v.id, v.viewCount, v.likeCount, v.createdAt) " +
+           "FROM Video v WHERE v.status = :status AND v.createdAt >= :since")
+    List<TrendingSeed> findTrendingSeeds(
+        @Param("status") Video.VideoStatus status,
+        @Param("since") LocalDateTime since
+    );
+    
+    // Videos whose uploader has no channel are left out
+    @Query("SELECT new com.youtube.app.repository.projection.VideoChannel(v.id, c.id) " +
+           "FROM Video v JOIN Channel c ON c.owner = v.uploader WHERE v.id IN :ids")
+    List<VideoChannel> findChannels(@Param("ids") Collection<Long> ids);
+    
     Long countByUploader(User uploader);
-}
\ No newline at end of file
+    
+    long countByUploaderUsernameAndStatus(String username, Video.VideoStatus status);
+    
+    @Modifying
+    @Query("UPDATE Video v SET v.status = :status, v.updatedAt = :now WHERE v.id IN :ids AND v.status = :expected")
+    int transitionStatus(
+        @Param("ids") Collection<Long> ids,
+        @Param("expected") Video.VideoStatus expected,
+        @Param("status") Video.VideoStatus status,
+        @Param("now") LocalDateTime now
+    );
+    
+    @Modifying
+    @Query("UPDATE Video v SET v.status = :status, v.updatedAt = :now WHERE v.id = :id AND v.status <> :status")
+    int updateStatus(@Param("id") Long id, @Param("status") Video.VideoStatus status, @Param("now") LocalDateTime now);
+    
+    // Read after updateStatus, under its row lock, so it sees a blob swapped in by processing
+    @Query("SELECT v.contentHash FROM Video v WHERE v.id = :id")
+    Optional<String> findContentHash(@Param("id") Long id);
+}
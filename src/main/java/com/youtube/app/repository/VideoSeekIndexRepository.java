@@ -0,0 +1,9 @@
+package com.youtube.app.repository;
+
+import com.youtube.app.model.VideoSeekIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VideoSeekIndexRepository extends JpaRepository<VideoSeekIndex, Long> {
+}
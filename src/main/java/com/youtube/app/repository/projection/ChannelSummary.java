@@ -0,0 +1,16 @@
+package com.youtube.app.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The channel header shown on a channel page, without the owner or video associations.
+ */
+public record ChannelSummary(
+    Long id,
+    String name,
+    String description,
+    String bannerImageUrl,
+    Long subscriberCount,
+    Long totalViews,
+    LocalDateTime createdAt
+) {}
@@ -0,0 +1,8 @@
+package com.youtube.app.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lifetime counters of a READY video, used to seed the trending ranking from the database.
+ */
+public record TrendingSeed(Long id, Long viewCount, Long likeCount, LocalDateTime createdAt) {}
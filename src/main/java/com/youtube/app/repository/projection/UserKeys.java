@@ -0,0 +1,8 @@
+package com.youtube.app.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The unique fields of a user, streamed to build and top up the availability filters.
+ */
+public record UserKeys(Long id, String username, String email, LocalDateTime createdAt) {}
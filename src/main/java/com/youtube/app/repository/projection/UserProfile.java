@@ -0,0 +1,14 @@
+package com.youtube.app.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The public face of a user: no credentials, no email, nothing the persistence context has to track.
+ */
+public record UserProfile(
+    Long id,
+    String username,
+    String displayName,
+    String profileImageUrl,
+    LocalDateTime createdAt
+) {}
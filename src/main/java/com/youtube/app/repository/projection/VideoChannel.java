@@ -0,0 +1,6 @@
+package com.youtube.app.repository.projection;
+
+/**
+ * The channel a video's views count towards: the channel owned by its uploader.
+ */
+public record VideoChannel(Long videoId, Long channelId) {}
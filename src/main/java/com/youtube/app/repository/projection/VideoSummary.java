@@ -0,0 +1,18 @@
+package com.youtube.app.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns a video card needs, with its uploader flattened in so listings come back from one join.
+ */
+public record VideoSummary(
+    Long id,
+    String title,
+    String thumbnailUrl,
+    Integer durationSeconds,
+    Long viewCount,
+    LocalDateTime createdAt,
+    Long uploaderId,
+    String uploaderUsername,
+    String uploaderDisplayName
+) {}
@@ -0,0 +1,10 @@
+package com.youtube.app.search;
+
+import com.youtube.app.model.Video;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns the search index needs from a video row.
+ */
+public record IndexedVideo(Long id, String title, String description, Video.VideoStatus status, LocalDateTime updatedAt) {}
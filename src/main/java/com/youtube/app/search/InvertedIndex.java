@@ -0,0 +1,475 @@
+package com.youtube.app.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over video titles and descriptions, ranked with BM25.
+ * <p>
+ * Documents get increasing internal ids, so every postings list stays sorted by
+ * appending and queries run document-at-a-time with a bounded top-k heap. Removing
+ * or re-indexing a video tombstones its old internal id; postings are compacted once
+ * enough of the index is dead.
+ */
+public class InvertedIndex {
+
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_BOOST = 2;
+    private static final double COMPACT_DEAD_RATIO = 0.2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByVideo = new HashMap<>();
+    private final BitSet dead = new BitSet();
+
+    private long[] videoIds = new long[1024];
+    private int[] lengths = new int[1024];
+    // First 128 bits of each document's content digest, two longs per document
+    private long[] contentDigests = new long[2 * 1024];
+    private int docCount;
+    private int liveCount;
+    private long liveLength;
+
+    /**
+     * Adds or replaces a video. Returns false when the indexed content is unchanged.
+     */
+    public boolean index(long videoId, String title, String description) {
+        long[] digest = digest(title, description);
+
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = 0;
+        for (String token : tokenize(title)) {
+            termFrequencies.merge(token, TITLE_BOOST, Integer::sum);
+            length += TITLE_BOOST;
+        }
+        for (String token : tokenize(description)) {
+            termFrequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByVideo.get(videoId);
+            if (existing != null) {
+                if (contentDigests[2 * existing] == digest[0] && contentDigests[2 * existing + 1] == digest[1]) {
+                    return false;
+                }
+                tombstone(existing);
+            }
+
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            videoIds[doc] = videoId;
+            lengths[doc] = length;
+            contentDigests[2 * doc] = digest[0];
+            contentDigests[2 * doc + 1] = digest[1];
+            docByVideo.put(videoId, doc);
+            liveCount++;
+            liveLength += length;
+
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long videoId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docByVideo.remove(videoId);
+            if (doc == null) {
+                return false;
+            }
+            tombstone(doc);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a BM25 query. With {@code matchAll} every term must occur in a hit,
+     * otherwise any term will do. Hits are ordered by score, newest first on ties.
+     */
+    public SearchHits search(String query, boolean matchAll, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return new SearchHits(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    if (matchAll) {
+                        return new SearchHits(0, List.of());
+                    }
+                    continue;
+                }
+                lists.add(list);
+            }
+            if (lists.isEmpty()) {
+                return new SearchHits(0, List.of());
+            }
+            // Rarest term first so AND queries skip through the long lists
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            int k = offset + limit;
+            float averageLength = liveCount > 0 ? (float) liveLength / liveCount : 1f;
+            float[] idf = new float[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                int df = lists.get(i).size;
+                idf[i] = (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+            }
+
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(k + 1);
+            int[] cursors = new int[lists.size()];
+            long total = 0;
+
+            while (true) {
+                int candidate = matchAll ? nextCommon(lists, cursors) : nextAny(lists, cursors);
+                if (candidate < 0) {
+                    break;
+                }
+
+                if (!dead.get(candidate)) {
+                    float norm = K1 * (1 - B + B * lengths[candidate] / averageLength);
+                    float score = 0;
+                    for (int i = 0; i < lists.size(); i++) {
+                        Postings list = lists.get(i);
+                        if (cursors[i] < list.size && list.docs[cursors[i]] == candidate) {
+                            int tf = list.tfs[cursors[i]];
+                            score += idf[i] * (tf * (K1 + 1)) / (tf + norm);
+                        }
+                    }
+
+                    total++;
+                    ScoredDoc scored = new ScoredDoc(candidate, score);
+                    if (top.size() < k) {
+                        top.add(scored);
+                    } else if (scored.compareTo(top.peek()) > 0) {
+                        top.poll();
+                        top.add(scored);
+                    }
+                }
+
+                for (int i = 0; i < lists.size(); i++) {
+                    Postings list = lists.get(i);
+                    if (cursors[i] < list.size && list.docs[cursors[i]] == candidate) {
+                        cursors[i]++;
+                    }
+                }
+            }
+
+            ScoredDoc[] ranked = top.toArray(new ScoredDoc[0]);
+            Arrays.sort(ranked, (a, b) -> b.compareTo(a));
+            List<Long> hits = new ArrayList<>(Math.max(0, ranked.length - offset));
+            for (int i = offset; i < ranked.length; i++) {
+                hits.add(videoIds[ranked[i].doc]);
+            }
+            return new SearchHits(total, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void writeSnapshot(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            int[] remap = liveRemap();
+
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(liveCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                if (remap[doc] >= 0) {
+                    out.writeLong(videoIds[doc]);
+                    out.writeInt(lengths[doc]);
+                    out.writeLong(contentDigests[2 * doc]);
+                    out.writeLong(contentDigests[2 * doc + 1]);
+                }
+            }
+
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                int live = 0;
+                for (int i = 0; i < list.size; i++) {
+                    if (remap[list.docs[i]] >= 0) {
+                        live++;
+                    }
+                }
+                out.writeUTF(entry.getKey());
+                out.writeInt(live);
+                for (int i = 0; i < list.size; i++) {
+                    int doc = remap[list.docs[i]];
+                    if (doc >= 0) {
+                        out.writeInt(doc);
+                        out.writeInt(list.tfs[i]);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static InvertedIndex readSnapshot(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported search snapshot version " + version);
+        }
+
+        InvertedIndex index = new InvertedIndex();
+        int docs = in.readInt();
+        index.ensureCapacity(docs);
+        for (int doc = 0; doc < docs; doc++) {
+            index.videoIds[doc] = in.readLong();
+            index.lengths[doc] = in.readInt();
+            index.contentDigests[2 * doc] = in.readLong();
+            index.contentDigests[2 * doc + 1] = in.readLong();
+            index.docByVideo.put(index.videoIds[doc], doc);
+            index.liveLength += index.lengths[doc];
+        }
+        index.docCount = docs;
+        index.liveCount = docs;
+
+        int terms = in.readInt();
+        for (int t = 0; t < terms; t++) {
+            String term = in.readUTF();
+            int size = in.readInt();
+            if (size == 0) {
+                continue;
+            }
+            Postings list = new Postings(size);
+            for (int i = 0; i < size; i++) {
+                list.add(in.readInt(), in.readInt());
+            }
+            index.postings.put(term, list);
+        }
+        return index;
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Advances every cursor to the next doc present in all lists; -1 when any list runs out
+    private int nextCommon(List<Postings> lists, int[] cursors) {
+        Postings first = lists.get(0);
+        if (cursors[0] >= first.size) {
+            return -1;
+        }
+
+        int candidate = first.docs[cursors[0]];
+        outer:
+        while (true) {
+            for (int i = 0; i < lists.size(); i++) {
+                Postings list = lists.get(i);
+                cursors[i] = list.seek(cursors[i], candidate);
+                if (cursors[i] >= list.size) {
+                    return -1;
+                }
+                if (list.docs[cursors[i]] > candidate) {
+                    candidate = list.docs[cursors[i]];
+                    continue outer;
+                }
+            }
+            return candidate;
+        }
+    }
+
+    private int nextAny(List<Postings> lists, int[] cursors) {
+        int candidate = Integer.MAX_VALUE;
+        for (int i = 0; i < lists.size(); i++) {
+            Postings list = lists.get(i);
+            if (cursors[i] < list.size) {
+                candidate = Math.min(candidate, list.docs[cursors[i]]);
+            }
+        }
+        return candidate == Integer.MAX_VALUE ? -1 : candidate;
+    }
+
+    // SHA-256 over both fields, each length-prefixed so no split of the same characters collides
+    private static long[] digest(String title, String description) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String field : new String[] { title, description }) {
+            if (field == null) {
+                sha256.update(ByteBuffer.allocate(4).putInt(-1).array());
+            } else {
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                sha256.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+                sha256.update(bytes);
+            }
+        }
+        ByteBuffer hash = ByteBuffer.wrap(sha256.digest());
+        return new long[] { hash.getLong(), hash.getLong() };
+    }
+
+    private void tombstone(int doc) {
+        dead.set(doc);
+        liveCount--;
+        liveLength -= lengths[doc];
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        int deadCount = docCount - liveCount;
+        if (deadCount < 1024 || deadCount < docCount * COMPACT_DEAD_RATIO) {
+            return;
+        }
+
+        int[] remap = liveRemap();
+        for (int doc = 0; doc < docCount; doc++) {
+            int target = remap[doc];
+            if (target >= 0) {
+                videoIds[target] = videoIds[doc];
+                lengths[target] = lengths[doc];
+                contentDigests[2 * target] = contentDigests[2 * doc];
+                contentDigests[2 * target + 1] = contentDigests[2 * doc + 1];
+                docByVideo.put(videoIds[target], target);
+            }
+        }
+
+        postings.values().removeIf(list -> list.compact(remap) == 0);
+        docCount = liveCount;
+        dead.clear();
+    }
+
+    private int[] liveRemap() {
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            remap[doc] = dead.get(doc) ? -1 : next++;
+        }
+        return remap;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > videoIds.length) {
+            int grown = Math.max(capacity, videoIds.length * 2);
+            videoIds = Arrays.copyOf(videoIds, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+            contentDigests = Arrays.copyOf(contentDigests, 2 * grown);
+        }
+    }
+
+    private static final class Postings {
+        int[] docs;
+        int[] tfs;
+        int size;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            docs = new int[capacity];
+            tfs = new int[capacity];
+        }
+
+        void add(int doc, int tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            docs[size] = doc;
+            tfs[size] = tf;
+            size++;
+        }
+
+        // First position at or after from whose doc is >= target (galloping search)
+        int seek(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, size);
+            int found = Arrays.binarySearch(docs, low, high, target);
+            return found >= 0 ? found : -found - 1;
+        }
+
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    tfs[kept] = tfs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    private record ScoredDoc(int doc, float score) implements Comparable<ScoredDoc> {
+        @Override
+        public int compareTo(ScoredDoc other) {
+            int byScore = Float.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(doc, other.doc);
+        }
+    }
+
+    public record SearchHits(long total, List<Long> videoIds) {}
+}
@@ -0,0 +1,162 @@
+package com.youtube.app.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt on a small dedicated pool instead of the calling request thread. BCrypt is pure
+ * CPU, so a burst of logins hashing on Tomcat threads would occupy every core and starve cheap
+ * endpoints; here at most {@code threads} hashes run at once and a bounded queue holds the rest.
+ * When the queue is full, or a queued hash waits longer than {@code maxWait}, the call fails
+ * with {@link HashingSaturatedException} instead of piling up more work.
+ * <p>
+ * {@link #upgradeEncoding} reports hashes made at a different cost than the configured one, so
+ * logins rehash them, but only while nothing is queued for the pool.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final Duration maxWait;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, Duration maxWait, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.maxWait = maxWait;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread t = new Thread(r, "password-hashing-" + threadIndex.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        );
+
+        encodeTimer = Timer.builder("auth.password.hash")
+            .description("Time spent computing one BCrypt hash")
+            .tag("operation", "encode")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        matchTimer = Timer.builder("auth.password.hash")
+            .description("Time spent computing one BCrypt hash")
+            .tag("operation", "matches")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        waitTimer = Timer.builder("auth.password.queue.wait")
+            .description("Time a hash request waited for a hashing thread")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        rejected = Counter.builder("auth.password.rejected")
+            .description("Hash requests refused because the hashing pool was saturated")
+            .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+            .description("Hash requests waiting for a hashing thread")
+            .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Hashes being computed right now")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher cost = BCRYPT_COST.matcher(encodedPassword);
+        if (!cost.find() || Integer.parseInt(cost.group(1)) == strength) {
+            return false;
+        }
+        // A rehash is a second full-cost hash; leave it for a quieter login rather than add to a backlog
+        return executor.getQueue().isEmpty();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> hash, Timer timer) {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingSaturatedException(maxWait);
+        }
+
+        try {
+            return result.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            throw new HashingSaturatedException(maxWait);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * The hashing pool could not take more work; callers should answer 503 with {@link #getRetryAfter()}.
+     */
+    public static class HashingSaturatedException extends RuntimeException {
+        private final Duration retryAfter;
+
+        public HashingSaturatedException(Duration retryAfter) {
+            super("Too many password operations in progress, try again shortly");
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.youtube.app.security;
+
+import com.youtube.app.service.UserService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>}. A missing or invalid
+ * token, or one whose user has since been disabled or removed, leaves the request anonymous, so
+ * the authorization rules decide what it may reach. The user check reads the user cache, so a
+ * disabled account is locked out at once on the node that disabled it and within
+ * {@code app.users.cache.ttl} everywhere else.
+ * <p>
+ * Deliberately not a bean: Spring Boot would also register it as a servlet filter. The
+ * security configuration adds it to the chain instead.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final UserService userService;
+
+    public TokenAuthenticationFilter(TokenService tokenService, UserService userService) {
+        this.tokenService = tokenService;
+        this.userService = userService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            TokenService.VerifiedToken token = tokenService.verify(header.substring(BEARER_PREFIX.length()).trim());
+            if (token != null && userService.isEnabled(token.username())) {
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(token.toPrincipal(), null, List.of());
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,151 @@
+package com.youtube.app.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.youtube.app.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Issues and verifies the HMAC-signed bearer tokens that stand in for a session. A token
+ * carries the user's id, username and email, so authenticated requests need neither BCrypt
+ * nor, beyond the cached check that the account is still enabled, a database lookup.
+ * <p>
+ * Verified tokens are remembered in a bounded Caffeine cache keyed by the exact token string
+ * until they expire; clients send the same token on every call, so most requests skip the
+ * base64, JSON and HMAC work entirely. Only strings that passed full verification are ever cached.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String EMAIL_CLAIM = "email";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Base64 HMAC-SHA256 key of at least 256 bits; shared by every node that has to accept the tokens
+    @Value("${app.auth.token.secret}")
+    private String secret;
+
+    @Value("${app.auth.token.ttl}")
+    private Duration ttl;
+
+    @Value("${app.auth.token.cache-size}")
+    private int cacheSize;
+
+    private SecretKey key;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verified;
+
+    private Counter cacheHits;
+    private Counter verifications;
+    private Counter rejections;
+
+    @PostConstruct
+    public void init() {
+        if (secret == null || secret.isBlank()) {
+            log.warn("No app.auth.token.secret configured; using a random key, so tokens will not survive a restart or work across nodes");
+            key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        } else {
+            key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        }
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+        // No token outlives its ttl, so neither does its entry
+        verified = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(ttl)
+            .build();
+
+        cacheHits = Counter.builder("auth.token.verifications").tag("result", "cached").register(meterRegistry);
+        verifications = Counter.builder("auth.token.verifications").tag("result", "verified").register(meterRegistry);
+        rejections = Counter.builder("auth.token.verifications").tag("result", "rejected").register(meterRegistry);
+        Gauge.builder("auth.token.cache.size", this, service -> service.verified.estimatedSize())
+            .description("Verified tokens remembered")
+            .register(meterRegistry);
+    }
+
+    public IssuedToken issue(User user) {
+        long now = System.currentTimeMillis();
+        String token = Jwts.builder()
+            .setSubject(user.getUsername())
+            .claim(USER_ID_CLAIM, user.getId())
+            .claim(EMAIL_CLAIM, user.getEmail())
+            .setIssuedAt(new Date(now))
+            .setExpiration(new Date(now + ttl.toMillis()))
+            .signWith(key, SignatureAlgorithm.HS256)
+            .compact();
+        return new IssuedToken(token, ttl);
+    }
+
+    /**
+     * Returns the token's claims, or null if it is malformed, forged or expired.
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verified.getIfPresent(token);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                cacheHits.increment();
+                return cached;
+            }
+            verified.invalidate(token);
+            rejections.increment();
+            return null;
+        }
+
+        VerifiedToken result;
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            result = new VerifiedToken(
+                claims.get(USER_ID_CLAIM, Long.class),
+                claims.getSubject(),
+                claims.get(EMAIL_CLAIM, String.class),
+                claims.getExpiration().getTime()
+            );
+        } catch (JwtException | IllegalArgumentException e) {
+            rejections.increment();
+            return null;
+        }
+
+        verifications.increment();
+        verified.put(token, result);
+        return result;
+    }
+
+    public record IssuedToken(String token, Duration expiresIn) {}
+
+    public record VerifiedToken(Long userId, String username, String email, long expiresAt) {
+
+        /**
+         * A detached user carrying only what the token asserts, for controllers that take the principal as a {@link User}.
+         */
+        public User toPrincipal() {
+            User user = new User(username, email, null);
+            user.setId(userId);
+            return user;
+        }
+    }
+}
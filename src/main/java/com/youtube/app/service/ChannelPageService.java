@@ -0,0 +1,207 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.ChannelRepository;
+import com.youtube.app.repository.VideoRepository;
+import com.youtube.app.repository.projection.ChannelSummary;
+import com.youtube.app.repository.projection.UserProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Assembles a channel page from four independent reads: the owner's profile, the channel
+ * header, the latest videos and the video count. With fan-out enabled each read runs on its
+ * own virtual thread, so the page costs the slowest read instead of the sum of all four.
+ * <p>
+ * The reads share one deadline. The owner is required: if it fails or misses the deadline the
+ * page fails and the other reads are cancelled. Any other read that fails or is still running
+ * at the deadline is cancelled and reported in {@link ChannelPage#missing()}, and the page is
+ * served without it. A JDBC call already in flight runs to completion; only its result is dropped.
+ */
+@Service
+public class ChannelPageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelPageService.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ChannelRepository channelRepository;
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.channels.page-deadline}")
+    private Duration deadline;
+
+    @Value("${app.channels.fan-out}")
+    private boolean fanOut;
+
+    // Virtual threads are cheap to block, so one per read; the connection pool is what bounds concurrency
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("channel-page-", 0).factory()
+    );
+
+    private Timer fanOutTimer;
+    private Timer sequentialTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        fanOutTimer = pageTimer("fan_out");
+        sequentialTimer = pageTimer("sequential");
+    }
+
+    public ChannelPage getPage(String username, int videoLimit) {
+        return fanOut
+            ? fanOutTimer.record(() -> fetchConcurrently(username, videoLimit))
+            : sequentialTimer.record(() -> fetchSequentially(username, videoLimit));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ChannelPage fetchConcurrently(String username, int videoLimit) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+        Future<UserProfile> owner = executor.submit(() -> userService.getProfile(username));
+        Future<Optional<ChannelSummary>> channel = executor.submit(() -> channelRepository.findSummaryByOwnerUsername(username));
+        Future<VideoService.VideoWindow> videos = executor.submit(() -> videoService.listByUploader(username, null, videoLimit));
+        Future<Long> videoCount = executor.submit(() -> countVideos(username));
+
+        try {
+            UserProfile profile;
+            try {
+                profile = owner.get(remaining(deadlineNanos), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new DeadlineExceededException("Timed out loading channel owner " + username);
+            }
+
+            List<String> missing = new ArrayList<>();
+            return new ChannelPage(
+                profile,
+                optional(channel, "channel", deadlineNanos, missing).flatMap(found -> found).orElse(null),
+                optional(videos, "videos", deadlineNanos, missing).orElse(null),
+                optional(videoCount, "videoCount", deadlineNanos, missing).orElse(null),
+                missing
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading channel page", e);
+        } finally {
+            // No-op for reads that finished; interrupts the ones still running
+            owner.cancel(true);
+            channel.cancel(true);
+            videos.cancel(true);
+            videoCount.cancel(true);
+        }
+    }
+
+    private ChannelPage fetchSequentially(String username, int videoLimit) {
+        UserProfile profile = userService.getProfile(username);
+
+        List<String> missing = new ArrayList<>();
+        return new ChannelPage(
+            profile,
+            inline(() -> channelRepository.findSummaryByOwnerUsername(username), "channel", missing).flatMap(found -> found).orElse(null),
+            inline(() -> videoService.listByUploader(username, null, videoLimit), "videos", missing).orElse(null),
+            inline(() -> countVideos(username), "videoCount", missing).orElse(null),
+            missing
+        );
+    }
+
+    private long countVideos(String username) {
+        return videoRepository.countByUploaderUsernameAndStatus(username, Video.VideoStatus.READY);
+    }
+
+    private <T> Optional<T> optional(Future<T> read, String part, long deadlineNanos, List<String> missing)
+            throws InterruptedException {
+        try {
+            return Optional.ofNullable(read.get(remaining(deadlineNanos), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            log.debug("Channel page served without {}: deadline passed", part);
+        } catch (ExecutionException e) {
+            log.warn("Channel page served without {}", part, e.getCause());
+        }
+        markMissing(part, missing);
+        return Optional.empty();
+    }
+
+    private <T> Optional<T> inline(Callable<T> read, String part, List<String> missing) {
+        try {
+            return Optional.ofNullable(read.call());
+        } catch (Exception e) {
+            log.warn("Channel page served without {}", part, e);
+            markMissing(part, missing);
+            return Optional.empty();
+        }
+    }
+
+    private void markMissing(String part, List<String> missing) {
+        missing.add(part);
+        Counter.builder("channel.page.partial")
+            .description("Channel pages served without one of their parts")
+            .tag("part", part)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private static long remaining(long deadlineNanos) {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    private Timer pageTimer(String strategy) {
+        return Timer.builder("channel.page")
+            .description("Time to assemble a channel page")
+            .tag("strategy", strategy)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    public static class DeadlineExceededException extends RuntimeException {
+        public DeadlineExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A channel page; {@code channel} is also null when the user has no channel, which is not a miss.
+     */
+    public record ChannelPage(
+        UserProfile owner,
+        ChannelSummary channel,
+        VideoService.VideoWindow videos,
+        Long videoCount,
+        List<String> missing
+    ) {}
+}
@@ -0,0 +1,158 @@
+package com.youtube.app.service;
+
+import com.youtube.app.repository.VideoRepository;
+import com.youtube.app.repository.projection.VideoChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the denormalized {@code channels.subscriber_count} and {@code channels.total_views},
+ * so reading a channel never aggregates its videos or subscriptions.
+ * <p>
+ * Counters move in the same transaction as the rows they summarize: a subscription with its
+ * insert or delete, views with the batched flush of {@link ViewCountService}, where a busy
+ * channel costs one row update per flush instead of one per view. A periodic reconciliation
+ * recounts both from their source rows, which backfills channels created before the counters
+ * were maintained and repairs any drift from writes made outside this service.
+ */
+@Service
+public class ChannelStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelStatsService.class);
+
+    private static final String SUBSCRIBERS_SQL =
+        "UPDATE channels SET subscriber_count = subscriber_count + ? WHERE id = ?";
+
+    private static final String VIEWS_SQL =
+        "UPDATE channels SET total_views = total_views + ? WHERE id = ?";
+
+    private static final String LOCK_SQL =
+        "SELECT id FROM channels WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String SUBSCRIBER_TOTAL =
+        "(SELECT COUNT(*) FROM channel_subscriptions s WHERE s.channel_id = c.id)";
+
+    private static final String VIEW_TOTAL =
+        "(SELECT COALESCE(SUM(v.view_count), 0) FROM videos v WHERE v.user_id = c.user_id)";
+
+    // Only rows that drifted are written, so the update count says how many needed repair
+    private static final String RECONCILE_SQL =
+        "UPDATE channels c SET subscriber_count = " + SUBSCRIBER_TOTAL + ", total_views = " + VIEW_TOTAL +
+        " WHERE c.id BETWEEN ? AND ?" +
+        " AND (c.subscriber_count <> " + SUBSCRIBER_TOTAL + " OR c.total_views <> " + VIEW_TOTAL + ")";
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.channels.stats.lookup-batch-size}")
+    private int lookupBatchSize;
+
+    private Timer reconcileTimer;
+    private Counter repaired;
+
+    @PostConstruct
+    public void registerMetrics() {
+        reconcileTimer = Timer.builder("channel.stats.reconcile")
+            .description("Time to recount channel counters from their source rows")
+            .register(meterRegistry);
+        repaired = Counter.builder("channel.stats.repaired")
+            .description("Channels whose counters disagreed with their source rows")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Must run in the transaction that inserted or deleted the subscription row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSubscription(Long channelId, boolean subscribed) {
+        jdbcTemplate.update(SUBSCRIBERS_SQL, subscribed ? 1 : -1, channelId);
+    }
+
+    /**
+     * Must run in the transaction that added {@code videoDeltas} to the videos. Views of videos
+     * whose uploader has no channel are dropped.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordViews(Map<Long, Long> videoDeltas) {
+        // Ascending channel id order keeps concurrent flushers on different nodes from deadlocking
+        TreeMap<Long, Long> channelDeltas = new TreeMap<>();
+        List<Long> videoIds = new ArrayList<>(videoDeltas.keySet());
+        for (int from = 0; from < videoIds.size(); from += lookupBatchSize) {
+            List<Long> chunk = videoIds.subList(from, Math.min(from + lookupBatchSize, videoIds.size()));
+            for (VideoChannel video : videoRepository.findChannels(chunk)) {
+                channelDeltas.merge(video.channelId(), videoDeltas.get(video.videoId()), Long::sum);
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(channelDeltas.size());
+        for (Map.Entry<Long, Long> entry : channelDeltas.entrySet()) {
+            batch.add(new Object[] { entry.getValue(), entry.getKey() });
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(VIEWS_SQL, batch);
+        }
+    }
+
+    /**
+     * Recounts every channel in batches. Each batch locks its channel rows before counting, so a
+     * subscription or view flush in flight either commits first and is counted, or waits and
+     * applies its increment on top of the recount; neither is counted twice.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.channels.stats.reconcile-interval}")
+    public void reconcile() {
+        try {
+            reconcileTimer.record(() -> {
+                long after = 0L;
+                long fixed = 0L;
+                while (true) {
+                    long from = after;
+                    long[] result = transactionTemplate.execute(status -> {
+                        List<Long> ids = jdbcTemplate.queryForList(LOCK_SQL, Long.class, from, lookupBatchSize);
+                        if (ids.isEmpty()) {
+                            return null;
+                        }
+                        long last = ids.get(ids.size() - 1);
+                        return new long[] { last, jdbcTemplate.update(RECONCILE_SQL, ids.get(0), last) };
+                    });
+                    if (result == null) {
+                        break;
+                    }
+                    after = result[0];
+                    fixed += result[1];
+                }
+                repaired.increment(fixed);
+                if (fixed > 0) {
+                    log.info("Repaired counters of {} channels", fixed);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Unable to reconcile channel counters, will retry", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.youtube.app.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key counter deltas that many threads add to without blocking and one flusher drains.
+ * Not thread-safe for draining: callers serialize their flushes.
+ */
+class DeltaBuffer {
+
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Adders evicted for being idle are drained once more on the next flush, so a
+    // writer that grabbed one just before eviction still gets its delta counted
+    private Map<Long, LongAdder> retired = new HashMap<>();
+
+    void add(Long key, long delta) {
+        LongAdder adder = pending.get(key);
+        if (adder == null) {
+            adder = pending.computeIfAbsent(key, id -> new LongAdder());
+        }
+        adder.add(delta);
+    }
+
+    long pending(Long key) {
+        LongAdder adder = pending.get(key);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+
+        for (Map.Entry<Long, LongAdder> entry : retired.entrySet()) {
+            long residual = entry.getValue().sumThenReset();
+            if (residual != 0) {
+                deltas.merge(entry.getKey(), residual, Long::sum);
+            }
+        }
+        retired = new HashMap<>();
+
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                deltas.merge(entry.getKey(), delta, Long::sum);
+            } else if (pending.remove(entry.getKey(), entry.getValue())) {
+                retired.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return deltas;
+    }
+
+    void restore(Map<Long, Long> deltas) {
+        deltas.forEach(this::add);
+    }
+}
@@ -0,0 +1,25 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Component
+@Order(0)
+public class FileIntegrityStep implements VideoProcessingStep {
+
+    @Override
+    public void process(Video video, Path file) throws Exception {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException("Video file missing: " + video.getFilePath());
+        }
+
+        long size = Files.size(file);
+        if (video.getFileSize() != null && size != video.getFileSize()) {
+            throw new IllegalStateException("Video file size " + size + " does not match expected " + video.getFileSize());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.youtube.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque continuation tokens for keyset listings. A token carries the sort keys of the
+ * last row served; clients only pass it back and never need to parse it.
+ */
+public final class KeysetCursor {
+
+    private KeysetCursor() {}
+
+    public static String encode(Map<String, Object> keys) {
+        StringBuilder raw = new StringBuilder();
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            if (raw.length() > 0) {
+                raw.append('|');
+            }
+            raw.append(key.getKey()).append('=').append(key.getValue());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the sort keys carried by {@code token}, or an empty map for the first page.
+     */
+    public static Map<String, Object> decode(String token) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (token == null || token.isBlank()) {
+            return keys;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            for (String part : raw.split("\\|")) {
+                int eq = part.indexOf('=');
+                String name = part.substring(0, eq);
+                String value = part.substring(eq + 1);
+                keys.put(name, switch (name) {
+                    case "createdAt" -> LocalDateTime.parse(value);
+                    case "id", "viewCount" -> Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown cursor key " + name);
+                });
+            }
+            return keys;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+import com.youtube.app.model.VideoSeekIndex;
+import com.youtube.app.repository.VideoSeekIndexRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads an MP4 upload's {@code moov} box to fill in the duration and a keyframe seek index, and
+ * moves the box in front of the media data when the encoder left it at the end, so players can
+ * start before downloading the whole file. Nothing is re-encoded: the media data is copied as is
+ * and only the chunk offsets in {@code moov} change.
+ * <p>
+ * Only {@code moov} is held in memory, capped by {@code max-moov-size}; everything else is
+ * streamed. A relocated file has different bytes, so it is stored as a new blob and the video's
+ * reference moves over to it in one transaction. Files that are not ISO-BMFF are left alone.
+ */
+@Component
+@Order(1)
+public class Mp4IndexStep implements VideoProcessingStep {
+
+    private static final Logger log = LoggerFactory.getLogger(Mp4IndexStep.class);
+
+    // Locks the row so a concurrent delete releases whichever blob the video ends up holding
+    private static final String LOCK_SQL =
+        "SELECT content_hash FROM videos WHERE id = ? AND status = 'PROCESSING' AND file_path = ? FOR UPDATE";
+    private static final String DURATION_SQL = "UPDATE videos SET duration_seconds = ?, updated_at = ? WHERE id = ?";
+    private static final String RELOCATE_SQL =
+        "UPDATE videos SET file_path = ?, content_hash = ?, duration_seconds = ?, updated_at = ? WHERE id = ?";
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private VideoBlobStore videoBlobStore;
+
+    @Autowired
+    private VideoSeekIndexRepository videoSeekIndexRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.video.storage-dir}")
+    private String storageDir;
+
+    @Value("${app.processing.mp4.max-moov-size}")
+    private DataSize maxMoovSize;
+
+    private Counter relocated;
+
+    @PostConstruct
+    public void registerMetrics() {
+        relocated = Counter.builder("video.processing.faststart")
+            .description("MP4 uploads rewritten with their moov box first")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void process(Video video, Path file) throws Exception {
+        Path faststart = null;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<TopBox> boxes = scan(in);
+            if (boxes.isEmpty()) {
+                return;
+            }
+
+            TopBox moov = boxes.stream().filter(box -> box.type.equals("moov")).findFirst()
+                .orElseThrow(() -> new IllegalStateException("MP4 has no moov box: " + video.getFilePath()));
+            if (moov.size > maxMoovSize.toBytes()) {
+                log.warn("Skipping MP4 index for video {}: moov is {} bytes", video.getId(), moov.size);
+                return;
+            }
+
+            byte[] bytes = new byte[(int) moov.size];
+            readFully(in, ByteBuffer.wrap(bytes), moov.start);
+            Mp4Movie movie = Mp4Movie.parse(bytes);
+
+            TopBox mdat = boxes.stream().filter(box -> box.type.equals("mdat")).findFirst().orElse(null);
+            String hash = null;
+            if (mdat != null && mdat.start < moov.start) {
+                // Everything from the first mdat up to moov moves back by the size of moov
+                if (movie.shiftChunkOffsets(mdat.start, moov.start, moov.size)) {
+                    faststart = Paths.get(storageDir, ".uploads", video.getId() + "-" + UUID.randomUUID() + ".faststart");
+                    hash = writeFaststart(in, moov, mdat.start, movie.bytes(), faststart);
+                } else {
+                    log.warn("Leaving moov of video {} in place: 32-bit chunk offsets would overflow", video.getId());
+                }
+            }
+
+            save(video, file, movie, faststart, hash);
+        } finally {
+            if (faststart != null) {
+                // Still here if the video changed under us; the blob store moves it otherwise
+                Files.deleteIfExists(faststart);
+            }
+        }
+    }
+
+    private void save(Video video, Path file, Mp4Movie movie, Path faststart, String hash) throws IOException {
+        SeekIndex keyframes = movie.keyframes();
+        long millis = movie.durationMillis();
+        Integer duration = millis > 0 ? (int) Math.round(millis / 1000.0) : null;
+        long size = Files.size(file);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> locked = jdbcTemplate.queryForList(LOCK_SQL, String.class, video.getId(), video.getFilePath());
+            if (locked.isEmpty()) {
+                log.info("Video {} changed while being indexed, discarding the result", video.getId());
+                return;
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            if (faststart == null) {
+                jdbcTemplate.update(DURATION_SQL, duration, now, video.getId());
+            } else {
+                String filePath = videoBlobStore.store(faststart, hash, extensionOf(video.getFilePath()), size);
+                jdbcTemplate.update(RELOCATE_SQL, filePath, hash, duration, now, video.getId());
+                String previous = locked.get(0);
+                if (previous != null) {
+                    videoBlobStore.release(previous);
+                } else {
+                    deleteAfterCommit(file);
+                }
+                relocated.increment();
+            }
+            videoSeekIndexRepository.save(new VideoSeekIndex(video.getId(), keyframes.encode(), keyframes.size()));
+        });
+    }
+
+    /**
+     * Top-level boxes in file order, or none if the file does not start with {@code ftyp}.
+     */
+    private List<TopBox> scan(FileChannel in) throws IOException {
+        List<TopBox> boxes = new ArrayList<>();
+        long length = in.size();
+        ByteBuffer header = ByteBuffer.allocate(16);
+        long position = 0;
+
+        while (position < length) {
+            header.clear().limit((int) Math.min(16, length - position));
+            readFully(in, header, position);
+            if (header.limit() < 8) {
+                throw new IllegalStateException("Truncated MP4 box header at " + position);
+            }
+
+            long size = header.getInt(0) & 0xFFFFFFFFL;
+            String type = new String(header.array(), 4, 4, StandardCharsets.ISO_8859_1);
+            if (boxes.isEmpty() && !type.equals("ftyp")) {
+                return boxes;
+            }
+
+            int headerSize = 8;
+            if (size == 1) {
+                if (header.limit() < 16) {
+                    throw new IllegalStateException("Truncated MP4 box header at " + position);
+                }
+                size = header.getLong(8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = length - position;
+            }
+            if (size < headerSize || position + size > length) {
+                throw new IllegalStateException("Malformed MP4 box '" + type + "' at " + position);
+            }
+
+            boxes.add(new TopBox(type, position, size));
+            position += size;
+        }
+        return boxes;
+    }
+
+    /**
+     * Writes the file with the patched {@code moov} placed at {@code insertAt}, and returns the
+     * SHA-256 of what was written.
+     */
+    private String writeFaststart(FileChannel in, TopBox moov, long insertAt, byte[] patched, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            copy(in, 0, insertAt, out, digest, buffer);
+            digest.update(patched);
+            ByteBuffer moovBytes = ByteBuffer.wrap(patched);
+            while (moovBytes.hasRemaining()) {
+                out.write(moovBytes);
+            }
+            copy(in, insertAt, moov.start, out, digest, buffer);
+            copy(in, moov.start + moov.size, in.size(), out, digest, buffer);
+            out.force(false);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void copy(FileChannel in, long from, long to, FileChannel out, MessageDigest digest, ByteBuffer buffer) throws IOException {
+        long position = from;
+        while (position < to) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+            readFully(in, buffer, position);
+            position += buffer.limit();
+
+            buffer.flip();
+            digest.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    private void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer, at);
+            if (read < 0) {
+                throw new IllegalStateException("Unexpected end of MP4 at " + at);
+            }
+            at += read;
+        }
+    }
+
+    // Files from before content addressing have no blob row, so nothing else can reference them
+    private void deleteAfterCommit(Path file) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        log.warn("Unable to delete replaced video file {}", file, e);
+                    }
+                }
+            }
+        });
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String extensionOf(String filePath) {
+        String name = Paths.get(filePath).getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot) : "";
+    }
+
+    private record TopBox(String type, long start, long size) {}
+}
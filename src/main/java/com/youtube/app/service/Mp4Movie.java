@@ -0,0 +1,282 @@
+package com.youtube.app.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ISO-BMFF {@code moov} box held in memory: the sample tables needed to read the duration and
+ * keyframe positions, and to move the media data by patching chunk offsets in place. Everything
+ * else in the box is carried through untouched.
+ */
+final class Mp4Movie {
+
+    private static final long UINT32_MAX = 0xFFFFFFFFL;
+
+    private final ByteBuffer moov;
+    private final Box root;
+
+    private Mp4Movie(ByteBuffer moov, Box root) {
+        this.moov = moov;
+        this.root = root;
+    }
+
+    /**
+     * Wraps a complete {@code moov} box, header included.
+     */
+    static Mp4Movie parse(byte[] box) {
+        ByteBuffer buffer = ByteBuffer.wrap(box);
+        Box root = readBox(buffer, 0, box.length);
+        if (root == null || !root.type.equals("moov")) {
+            throw new IllegalArgumentException("Not a moov box");
+        }
+        return new Mp4Movie(buffer, root);
+    }
+
+    byte[] bytes() {
+        return moov.array();
+    }
+
+    long durationMillis() {
+        Box mvhd = child(root, "mvhd");
+        if (mvhd == null || !fits(mvhd, 20)) {
+            return 0;
+        }
+
+        int at = mvhd.content;
+        boolean wide = moov.get(at) == 1;
+        if (wide && !fits(mvhd, 32)) {
+            return 0;
+        }
+        long timescale = uint32(at + (wide ? 20 : 12));
+        long duration = wide ? moov.getLong(at + 24) : uint32(at + 16);
+        return timescale > 0 ? duration * 1000 / timescale : 0;
+    }
+
+    /**
+     * Adds {@code delta} to every chunk offset in [{@code from}, {@code to}). Nothing is changed,
+     * and false returned, if a 32-bit offset table would overflow.
+     */
+    boolean shiftChunkOffsets(long from, long to, long delta) {
+        List<Box> tables = new ArrayList<>();
+        for (Box trak : children(root, "trak")) {
+            Box stbl = path(trak, "mdia", "minf", "stbl");
+            if (stbl != null) {
+                Box stco = child(stbl, "stco");
+                Box co64 = child(stbl, "co64");
+                if (stco != null) {
+                    tables.add(stco);
+                }
+                if (co64 != null) {
+                    tables.add(co64);
+                }
+            }
+        }
+
+        for (Box table : tables) {
+            if (table.type.equals("stco")) {
+                for (int i = 0, n = entryCount(table); i < n; i++) {
+                    long offset = uint32(table.content + 8 + i * 4);
+                    if (offset >= from && offset < to && offset + delta > UINT32_MAX) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        for (Box table : tables) {
+            boolean wide = table.type.equals("co64");
+            for (int i = 0, n = entryCount(table); i < n; i++) {
+                int at = table.content + 8 + i * (wide ? 8 : 4);
+                long offset = wide ? moov.getLong(at) : uint32(at);
+                if (offset >= from && offset < to) {
+                    if (wide) {
+                        moov.putLong(at, offset + delta);
+                    } else {
+                        moov.putInt(at, (int) (offset + delta));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keyframes of the first video track, as decode times and file offsets.
+     * Returns an empty index when there is no video track or its tables are incomplete.
+     */
+    SeekIndex keyframes() {
+        for (Box trak : children(root, "trak")) {
+            Box mdia = child(trak, "mdia");
+            Box hdlr = mdia != null ? child(mdia, "hdlr") : null;
+            if (hdlr == null || !fits(hdlr, 12) || !type(hdlr.content + 8).equals("vide")) {
+                continue;
+            }
+
+            Box mdhd = child(mdia, "mdhd");
+            Box stbl = path(mdia, "minf", "stbl");
+            if (mdhd == null || stbl == null || !fits(mdhd, 16)
+                    || (moov.get(mdhd.content) == 1 && !fits(mdhd, 24))) {
+                return SeekIndex.EMPTY;
+            }
+            return keyframes(timescale(mdhd), stbl);
+        }
+        return SeekIndex.EMPTY;
+    }
+
+    private SeekIndex keyframes(long timescale, Box stbl) {
+        Box stts = child(stbl, "stts");
+        Box stsc = child(stbl, "stsc");
+        Box stsz = child(stbl, "stsz");
+        Box stss = child(stbl, "stss");
+        Box stco = child(stbl, "stco");
+        Box co64 = child(stbl, "co64");
+        Box chunks = stco != null ? stco : co64;
+        if (timescale <= 0 || stts == null || stsc == null || stsz == null || chunks == null) {
+            return SeekIndex.EMPTY;
+        }
+
+        long uniformSize = uint32(stsz.content + 4);
+        long sampleCount = uint32(stsz.content + 8);
+        if (uniformSize == 0) {
+            sampleCount = Math.min(sampleCount, Math.max(0, (stsz.end - stsz.content - 12) / 4));
+        }
+        int chunkCount = entryCount(chunks);
+        int stscCount = entryCount(stsc);
+        int sttsCount = entryCount(stts);
+        int syncCount = stss != null ? entryCount(stss) : -1;
+
+        SeekIndex.Builder index = new SeekIndex.Builder();
+        long sample = 0;
+        long time = 0;
+        int sttsEntry = 0;
+        long sttsLeft = sttsCount > 0 ? uint32(stts.content + 8) : 0;
+        int syncEntry = 0;
+
+        for (int stscEntry = 0; stscEntry < stscCount && sample < sampleCount; stscEntry++) {
+            int entry = stsc.content + 8 + stscEntry * 12;
+            long firstChunk = uint32(entry);
+            long samplesPerChunk = uint32(entry + 4);
+            long lastChunk = stscEntry + 1 < stscCount ? uint32(entry + 12) - 1 : chunkCount;
+
+            for (long chunk = firstChunk; chunk <= lastChunk && chunk <= chunkCount && sample < sampleCount; chunk++) {
+                long offset = chunks == co64
+                    ? moov.getLong(chunks.content + 8 + (int) (chunk - 1) * 8)
+                    : uint32(chunks.content + 8 + (int) (chunk - 1) * 4);
+
+                for (long i = 0; i < samplesPerChunk && sample < sampleCount; i++) {
+                    sample++;
+                    // stss lists 1-based sample numbers in ascending order; no stss means every sample is a keyframe
+                    boolean sync = syncCount < 0;
+                    while (!sync && syncEntry < syncCount && uint32(stss.content + 8 + syncEntry * 4) <= sample) {
+                        sync = uint32(stss.content + 8 + syncEntry * 4) == sample;
+                        syncEntry++;
+                    }
+                    if (sync) {
+                        index.add(time * 1000 / timescale, offset);
+                    }
+
+                    offset += uniformSize != 0 ? uniformSize : uint32(stsz.content + 12 + (int) (sample - 1) * 4);
+                    while (sttsLeft == 0 && sttsEntry + 1 < sttsCount) {
+                        sttsEntry++;
+                        sttsLeft = uint32(stts.content + 8 + sttsEntry * 8);
+                    }
+                    if (sttsLeft > 0) {
+                        time += uint32(stts.content + 12 + sttsEntry * 8);
+                        sttsLeft--;
+                    }
+                }
+            }
+        }
+        return index.build();
+    }
+
+    private long timescale(Box mdhd) {
+        return uint32(mdhd.content + (moov.get(mdhd.content) == 1 ? 20 : 12));
+    }
+
+    private static boolean fits(Box box, int bytes) {
+        return box.end - box.content >= bytes;
+    }
+
+    private int entryCount(Box table) {
+        if (!fits(table, 8)) {
+            return 0;
+        }
+        long count = uint32(table.content + 4);
+        int width = switch (table.type) {
+            case "stsc" -> 12;
+            case "stts", "co64" -> 8;
+            default -> 4;
+        };
+        // A count that overruns its box means a corrupt table; clamp rather than read past it
+        return (int) Math.min(count, Math.max(0, (table.end - table.content - 8) / width));
+    }
+
+    private Box path(Box parent, String... types) {
+        Box box = parent;
+        for (String type : types) {
+            box = box != null ? child(box, type) : null;
+        }
+        return box;
+    }
+
+    private Box child(Box parent, String type) {
+        for (Box box : children(parent, null)) {
+            if (box.type.equals(type)) {
+                return box;
+            }
+        }
+        return null;
+    }
+
+    private List<Box> children(Box parent, String type) {
+        List<Box> boxes = new ArrayList<>();
+        int at = parent.content;
+        while (at < parent.end) {
+            Box box = readBox(moov, at, parent.end);
+            if (box == null) {
+                break;
+            }
+            if (type == null || box.type.equals(type)) {
+                boxes.add(box);
+            }
+            at = box.end;
+        }
+        return boxes;
+    }
+
+    private static Box readBox(ByteBuffer buffer, int at, int limit) {
+        if (at + 8 > limit) {
+            return null;
+        }
+
+        long size = buffer.getInt(at) & UINT32_MAX;
+        String type = new String(buffer.array(), at + 4, 4, StandardCharsets.ISO_8859_1);
+        int header = 8;
+        if (size == 1) {
+            if (at + 16 > limit) {
+                return null;
+            }
+            size = buffer.getLong(at + 8);
+            header = 16;
+        } else if (size == 0) {
+            size = limit - at;
+        }
+        if (size < header || at + size > limit) {
+            return null;
+        }
+        return new Box(type, at + header, (int) (at + size));
+    }
+
+    private long uint32(int at) {
+        return moov.getInt(at) & UINT32_MAX;
+    }
+
+    private String type(int at) {
+        return new String(moov.array(), at, 4, StandardCharsets.ISO_8859_1);
+    }
+
+    private record Box(String type, int content, int end) {}
+}
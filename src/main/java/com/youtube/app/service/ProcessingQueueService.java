@@ -0,0 +1,171 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.ProcessingJob;
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.ProcessingJobRepository;
+import com.youtube.app.repository.VideoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional
+public class ProcessingQueueService {
+
+    @Autowired
+    private ProcessingJobRepository processingJobRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Value("${app.processing.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${app.processing.backoff-base}")
+    private Duration backoffBase;
+
+    @Value("${app.processing.backoff-max}")
+    private Duration backoffMax;
+
+    public ProcessingJob enqueue(Long videoId) {
+        return processingJobRepository.save(new ProcessingJob(videoId));
+    }
+
+    /**
+     * Leases up to {@code limit} runnable jobs to this node. The row locks taken by
+     * {@code FOR UPDATE SKIP LOCKED} only live for this transaction; the lease itself
+     * is the RUNNING status plus {@code lockedAt}, which the reaper expires.
+     */
+    public List<ClaimedJob> claim(String nodeId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessingJob> jobs = processingJobRepository.lockRunnable(now, limit);
+
+        List<ClaimedJob> claimed = new ArrayList<>(jobs.size());
+        for (ProcessingJob job : jobs) {
+            job.setStatus(ProcessingJob.JobStatus.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedBy(nodeId);
+            job.setLockedAt(now);
+            claimed.add(new ClaimedJob(job.getId(), job.getVideoId(), job.getAttempts()));
+        }
+        return claimed;
+    }
+
+    /**
+     * Writes a batch of finished jobs back in one transaction: job rows are flushed as a
+     * JDBC batch and the video status changes collapse into one bulk update per target state.
+     */
+    public void applyOutcomes(List<JobOutcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+
+        Map<Long, JobOutcome> byJobId = new HashMap<>();
+        for (JobOutcome outcome : outcomes) {
+            byJobId.put(outcome.jobId(), outcome);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> readyVideos = new ArrayList<>();
+        List<Long> failedVideos = new ArrayList<>();
+
+        for (ProcessingJob job : processingJobRepository.findAllById(byJobId.keySet())) {
+            JobOutcome outcome = byJobId.get(job.getId());
+            if (!outcome.nodeId().equals(job.getLockedBy())) {
+                // Lease expired and the job was handed to another node; its result wins
+                continue;
+            }
+
+            job.setLockedBy(null);
+            job.setLockedAt(null);
+
+            if (outcome.error() == null) {
+                job.setStatus(ProcessingJob.JobStatus.DONE);
+                job.setLastError(null);
+                readyVideos.add(job.getVideoId());
+            } else if (job.getAttempts() < maxAttempts) {
+                job.setStatus(ProcessingJob.JobStatus.PENDING);
+                job.setLastError(truncate(outcome.error()));
+                job.setRunAt(now.plus(backoff(job.getAttempts())));
+            } else {
+                job.setStatus(ProcessingJob.JobStatus.FAILED);
+                job.setLastError(truncate(outcome.error()));
+                failedVideos.add(job.getVideoId());
+            }
+        }
+
+        if (!readyVideos.isEmpty()) {
+            videoRepository.transitionStatus(readyVideos, Video.VideoStatus.PROCESSING, Video.VideoStatus.READY, now);
+        }
+        if (!failedVideos.isEmpty()) {
+            videoRepository.transitionStatus(failedVideos, Video.VideoStatus.PROCESSING, Video.VideoStatus.FAILED, now);
+        }
+    }
+
+    /**
+     * Extends the leases this node still holds, so a long step is not handed to another node
+     * while it runs.
+     */
+    public int renewLeases(String nodeId, Collection<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+        return processingJobRepository.renewLeases(jobIds, nodeId, LocalDateTime.now());
+    }
+
+    /**
+     * Hands jobs whose lease ran out back to the queue. A job that has used up its attempts is
+     * failed instead: one that keeps killing its node or overrunning its lease would otherwise
+     * be retried forever.
+     */
+    public int releaseExpiredLeases(Duration leaseTimeout) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessingJob> expired = processingJobRepository.lockExpired(now.minus(leaseTimeout));
+        List<Long> failedVideos = new ArrayList<>();
+
+        for (ProcessingJob job : expired) {
+            job.setLockedBy(null);
+            job.setLockedAt(null);
+            if (job.getAttempts() < maxAttempts) {
+                job.setStatus(ProcessingJob.JobStatus.PENDING);
+            } else {
+                job.setStatus(ProcessingJob.JobStatus.FAILED);
+                job.setLastError("Lease expired on attempt " + job.getAttempts());
+                failedVideos.add(job.getVideoId());
+            }
+        }
+
+        if (!failedVideos.isEmpty()) {
+            videoRepository.transitionStatus(failedVideos, Video.VideoStatus.PROCESSING, Video.VideoStatus.FAILED, now);
+        }
+        return expired.size();
+    }
+
+    @Transactional(readOnly = true)
+    public long pendingCount() {
+        return processingJobRepository.countByStatus(ProcessingJob.JobStatus.PENDING);
+    }
+
+    private Duration backoff(int attempts) {
+        // base * 2^(attempts - 1), capped
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private String truncate(String error) {
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    public record ClaimedJob(Long jobId, Long videoId, int attempt) {}
+
+    public record JobOutcome(Long jobId, String nodeId, String error) {}
+}
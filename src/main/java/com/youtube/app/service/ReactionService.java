@@ -0,0 +1,314 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.VideoReactions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.youtube.app.repository.VideoReactionsRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps, per video, the set of users who liked and disliked it as Roaring bitmaps.
+ * Membership checks and toggles are in-memory; like/dislike counts are the bitmap
+ * cardinalities.
+ * <p>
+ * Each set also remembers which users changed their reaction since the last write. On a
+ * schedule those per-user changes are applied to the stored bitmaps under a row lock, and
+ * the counters move by the transitions that actually happened there, all in one transaction,
+ * so nodes never overwrite each other's reactions. Loaded sets expire after a TTL, which is
+ * how reactions made on other nodes show up; a changed set is also held by {@code pending}
+ * until it has been written back, so neither expiry nor eviction loses reactions.
+ */
+@Service
+public class ReactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactionService.class);
+
+    private static final String COUNTS_SQL =
+        "UPDATE videos SET like_count = like_count + ?, dislike_count = dislike_count + ? WHERE id = ?";
+    // Gives a video its row before the merge locks it; a row another node just created is kept
+    private static final String CREATE_SQL =
+        "INSERT INTO video_reactions (video_id, likes, dislikes, updated_at) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final byte[] EMPTY = serialize(new RoaringBitmap());
+
+    @Autowired
+    private VideoReactionsRepository videoReactionsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.reactions.cache.max-size}")
+    private long cacheMaxSize;
+
+    @Value("${app.reactions.cache.ttl}")
+    private Duration cacheTtl;
+
+    private Cache<Long, ReactionSet> reactions;
+
+    // Changed since the last write; flush() moves them to flushing while the write is in progress
+    private final ConcurrentHashMap<Long, ReactionSet> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ReactionSet> flushing = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initialize() {
+        reactions = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(cacheTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, reactions, "video.reactions");
+        Gauge.builder("video.reactions.videos", reactions, Cache::estimatedSize)
+            .description("Videos with reaction bitmaps loaded")
+            .register(meterRegistry);
+        Gauge.builder("video.reactions.memory", this, ReactionService::sizeInBytes)
+            .description("Heap held by loaded reaction bitmaps")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    public ReactionSummary react(Long videoId, Long userId, Reaction reaction) {
+        int member = toMember(userId);
+        ReactionSet set = load(videoId);
+
+        boolean credit = false;
+        ReactionSummary summary;
+        synchronized (set) {
+            boolean changed = switch (reaction) {
+                case LIKE -> set.likes.checkedAdd(member) | set.dislikes.checkedRemove(member);
+                case DISLIKE -> set.dislikes.checkedAdd(member) | set.likes.checkedRemove(member);
+                case NONE -> set.likes.checkedRemove(member) | set.dislikes.checkedRemove(member);
+            };
+            if (changed) {
+                set.changes.put(member, reaction);
+                pending.put(videoId, set);
+            }
+            // Toggling like/unlike must not pump the trending score, so each user counts once
+            credit = reaction == Reaction.LIKE && set.credited.checkedAdd(member);
+            summary = set.summary(member);
+        }
+
+        if (credit) {
+            trendingService.recordLike(videoId);
+        }
+        return summary;
+    }
+
+    public ReactionSummary getSummary(Long videoId, Long userId) {
+        ReactionSet set = load(videoId);
+        synchronized (set) {
+            return set.summary(userId != null ? toMember(userId) : -1);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reactions.flush-interval}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Sorted, so two nodes flushing the same videos lock their rows in the same order
+        Map<Long, ReactionSet> sets = new TreeMap<>();
+        Map<Long, Map<Integer, Reaction>> changes = new HashMap<>();
+
+        for (Long videoId : new ArrayList<>(pending.keySet())) {
+            // Visible through flushing before it leaves pending, so load() never reads a stale row meanwhile
+            ReactionSet set = pending.get(videoId);
+            flushing.put(videoId, set);
+            pending.remove(videoId, set);
+            synchronized (set) {
+                sets.put(videoId, set);
+                changes.put(videoId, new HashMap<>(set.changes));
+                set.changes.clear();
+            }
+        }
+
+        try {
+            Map<Long, VideoReactions> stored = transactionTemplate.execute(status -> write(changes));
+            // Pick up what other nodes stored meanwhile, keeping changes made here since the snapshot
+            stored.forEach((videoId, row) -> sets.get(videoId).rebase(deserialize(row.getLikes()), deserialize(row.getDislikes())));
+        } catch (RuntimeException e) {
+            sets.forEach((videoId, set) -> {
+                synchronized (set) {
+                    changes.get(videoId).forEach(set.changes::putIfAbsent);
+                }
+                pending.putIfAbsent(videoId, set);
+            });
+            log.warn("Unable to persist reactions for {} videos, will retry", sets.size(), e);
+        } finally {
+            flushing.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Map<Long, VideoReactions> write(Map<Long, Map<Integer, Reaction>> changes) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> creates = new ArrayList<>(changes.size());
+        for (Long videoId : changes.keySet()) {
+            creates.add(new Object[] { videoId, EMPTY, EMPTY, now });
+        }
+        jdbcTemplate.batchUpdate(CREATE_SQL, creates);
+
+        Map<Long, VideoReactions> stored = new HashMap<>();
+        List<Object[]> counts = new ArrayList<>(changes.size());
+        for (VideoReactions row : videoReactionsRepository.lockAll(changes.keySet())) {
+            RoaringBitmap likes = deserialize(row.getLikes());
+            RoaringBitmap dislikes = deserialize(row.getDislikes());
+            long likeDelta = 0;
+            long dislikeDelta = 0;
+
+            for (Map.Entry<Integer, Reaction> change : changes.get(row.getVideoId()).entrySet()) {
+                int member = change.getKey();
+                Reaction reaction = change.getValue();
+                likeDelta += (reaction == Reaction.LIKE ? 1 : 0) - (likes.contains(member) ? 1 : 0);
+                dislikeDelta += (reaction == Reaction.DISLIKE ? 1 : 0) - (dislikes.contains(member) ? 1 : 0);
+                likes.remove(member);
+                dislikes.remove(member);
+                if (reaction == Reaction.LIKE) {
+                    likes.add(member);
+                } else if (reaction == Reaction.DISLIKE) {
+                    dislikes.add(member);
+                }
+            }
+
+            // Written back by dirty checking when the transaction commits
+            row.setLikes(serialize(likes));
+            row.setDislikes(serialize(dislikes));
+            stored.put(row.getVideoId(), row);
+            if (likeDelta != 0 || dislikeDelta != 0) {
+                counts.add(new Object[] { likeDelta, dislikeDelta, row.getVideoId() });
+            }
+        }
+
+        jdbcTemplate.batchUpdate(COUNTS_SQL, counts);
+        return stored;
+    }
+
+    private ReactionSet load(Long videoId) {
+        return reactions.get(videoId, id -> {
+            ReactionSet unwritten = pending.get(id);
+            if (unwritten == null) {
+                unwritten = flushing.get(id);
+            }
+            if (unwritten != null) {
+                return unwritten;
+            }
+            return videoReactionsRepository.findById(id)
+                .map(row -> new ReactionSet(deserialize(row.getLikes()), deserialize(row.getDislikes())))
+                .orElseGet(() -> new ReactionSet(new RoaringBitmap(), new RoaringBitmap()));
+        });
+    }
+
+    private long sizeInBytes() {
+        long total = 0;
+        for (ReactionSet set : reactions.asMap().values()) {
+            total += set.likes.getLongSizeInBytes() + set.dislikes.getLongSizeInBytes() + set.credited.getLongSizeInBytes();
+        }
+        return total;
+    }
+
+    private int toMember(Long userId) {
+        // Roaring bitmaps hold 32-bit values; user ids are far below that ceiling
+        return Math.toIntExact(userId);
+    }
+
+    private static byte[] serialize(RoaringBitmap bitmap) {
+        bitmap.runOptimize();
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buffer);
+        return buffer.array();
+    }
+
+    private static RoaringBitmap deserialize(byte[] bytes) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        try {
+            bitmap.deserialize(ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt reaction bitmap", e);
+        }
+        return bitmap;
+    }
+
+    /**
+     * {@code credited} holds users whose like already reached trending while the set was loaded;
+     * it starts from the stored likes and is never persisted. {@code changes} holds each user's
+     * latest reaction not yet written back. All fields are guarded by the set's monitor.
+     */
+    private record ReactionSet(RoaringBitmap likes, RoaringBitmap dislikes, RoaringBitmap credited,
+                               Map<Integer, Reaction> changes) {
+        ReactionSet(RoaringBitmap likes, RoaringBitmap dislikes) {
+            this(likes, dislikes, likes.clone(), new HashMap<>());
+        }
+
+        synchronized void rebase(RoaringBitmap storedLikes, RoaringBitmap storedDislikes) {
+            likes.clear();
+            likes.or(storedLikes);
+            dislikes.clear();
+            dislikes.or(storedDislikes);
+            // Likes stored by other nodes were credited there
+            credited.or(storedLikes);
+            changes.forEach((member, reaction) -> {
+                likes.remove(member);
+                dislikes.remove(member);
+                if (reaction == Reaction.LIKE) {
+                    likes.add(member);
+                } else if (reaction == Reaction.DISLIKE) {
+                    dislikes.add(member);
+                }
+            });
+        }
+
+        ReactionSummary summary(int member) {
+            Reaction current = Reaction.NONE;
+            if (member >= 0 && likes.contains(member)) {
+                current = Reaction.LIKE;
+            } else if (member >= 0 && dislikes.contains(member)) {
+                current = Reaction.DISLIKE;
+            }
+            return new ReactionSummary(likes.getLongCardinality(), dislikes.getLongCardinality(), current);
+        }
+    }
+
+    public record ReactionSummary(long likeCount, long dislikeCount, Reaction userReaction) {}
+
+    public enum Reaction {
+        LIKE, DISLIKE, NONE
+    }
+}
@@ -0,0 +1,123 @@
+package com.youtube.app.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Keyframe positions of a video: for each keyframe, its time in milliseconds and the byte offset
+ * of its sample in the file. Both columns only grow, so they are stored as varint-encoded deltas,
+ * which keeps a typical entry to four or five bytes.
+ */
+public final class SeekIndex {
+
+    static final SeekIndex EMPTY = new SeekIndex(new long[0], new long[0]);
+
+    private final long[] times;
+    private final long[] offsets;
+
+    private SeekIndex(long[] times, long[] offsets) {
+        this.times = times;
+        this.offsets = offsets;
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    /**
+     * The last keyframe at or before {@code millis}, or the first one if {@code millis} precedes
+     * it. Returns null for an empty index.
+     */
+    public SeekPoint find(long millis) {
+        if (times.length == 0) {
+            return null;
+        }
+
+        int i = Arrays.binarySearch(times, millis);
+        if (i < 0) {
+            i = Math.max(0, -i - 2);
+        }
+        // Keyframes can share a timestamp; take the first so the seek lands on the earliest one
+        while (i > 0 && times[i - 1] == times[i]) {
+            i--;
+        }
+        return new SeekPoint(times[i], offsets[i]);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(times.length * 5 + 5);
+        writeVarint(out, times.length);
+        long time = 0;
+        long offset = 0;
+        for (int i = 0; i < times.length; i++) {
+            writeVarint(out, times[i] - time);
+            writeVarint(out, offsets[i] - offset);
+            time = times[i];
+            offset = offsets[i];
+        }
+        return out.toByteArray();
+    }
+
+    public static SeekIndex decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        int count = (int) readVarint(in);
+        long[] times = new long[count];
+        long[] offsets = new long[count];
+        long time = 0;
+        long offset = 0;
+        for (int i = 0; i < count; i++) {
+            time += readVarint(in);
+            offset += readVarint(in);
+            times[i] = time;
+            offsets[i] = offset;
+        }
+        return new SeekIndex(times, offsets);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static final class Builder {
+
+        private long[] times = new long[64];
+        private long[] offsets = new long[64];
+        private int size;
+
+        void add(long time, long offset) {
+            // Decode order can step back slightly with B-frames; the deltas must stay non-negative
+            if (size > 0 && (time < times[size - 1] || offset < offsets[size - 1])) {
+                return;
+            }
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            times[size] = time;
+            offsets[size] = offset;
+            size++;
+        }
+
+        SeekIndex build() {
+            return new SeekIndex(Arrays.copyOf(times, size), Arrays.copyOf(offsets, size));
+        }
+    }
+
+    public record SeekPoint(long millis, long offset) {}
+}
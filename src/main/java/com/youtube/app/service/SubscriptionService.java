@@ -0,0 +1,93 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.User;
+import com.youtube.app.repository.ChannelRepository;
+import com.youtube.app.repository.projection.ChannelSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Subscribes users to channels. Each change is a single statement whose row count says whether
+ * anything changed, so repeated or concurrent requests from the same user move the channel's
+ * subscriber count at most once. The count moves in the same transaction as the row.
+ */
+@Service
+public class SubscriptionService {
+
+    private static final String SUBSCRIBE_SQL =
+        "INSERT INTO channel_subscriptions (channel_id, user_id, created_at) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String UNSUBSCRIBE_SQL =
+        "DELETE FROM channel_subscriptions WHERE channel_id = ? AND user_id = ?";
+
+    private static final String SUBSCRIBED_SQL =
+        "SELECT COUNT(*) FROM channel_subscriptions WHERE channel_id = ? AND user_id = ?";
+
+    @Autowired
+    private ChannelRepository channelRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChannelStatsService channelStatsService;
+
+    public SubscriptionState subscribe(String owner, User subscriber) {
+        if (owner.equals(subscriber.getUsername())) {
+            throw new IllegalArgumentException("Cannot subscribe to your own channel");
+        }
+
+        ChannelSummary channel = findChannel(owner);
+        boolean changed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(SUBSCRIBE_SQL, channel.id(), subscriber.getId(), Timestamp.valueOf(LocalDateTime.now())) == 0) {
+                return false;
+            }
+            channelStatsService.recordSubscription(channel.id(), true);
+            return true;
+        }));
+        return state(channel, true, changed ? 1 : 0);
+    }
+
+    public SubscriptionState unsubscribe(String owner, User subscriber) {
+        ChannelSummary channel = findChannel(owner);
+        boolean changed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(UNSUBSCRIBE_SQL, channel.id(), subscriber.getId()) == 0) {
+                return false;
+            }
+            channelStatsService.recordSubscription(channel.id(), false);
+            return true;
+        }));
+        return state(channel, false, changed ? -1 : 0);
+    }
+
+    /**
+     * {@code subscriber} may be null for anonymous callers, who are never subscribed.
+     */
+    public SubscriptionState getState(String owner, User subscriber) {
+        ChannelSummary channel = findChannel(owner);
+        boolean subscribed = subscriber != null
+            && jdbcTemplate.queryForObject(SUBSCRIBED_SQL, Long.class, channel.id(), subscriber.getId()) > 0;
+        return state(channel, subscribed, 0);
+    }
+
+    private ChannelSummary findChannel(String owner) {
+        return channelRepository.findSummaryByOwnerUsername(owner)
+            .orElseThrow(() -> new RuntimeException("Channel not found"));
+    }
+
+    // The summary was read before the change, so the caller's own change is added on top
+    private SubscriptionState state(ChannelSummary channel, boolean subscribed, long change) {
+        long persisted = channel.subscriberCount() != null ? channel.subscriberCount() : 0L;
+        return new SubscriptionState(subscribed, persisted + change);
+    }
+
+    public record SubscriptionState(boolean subscribed, long subscriberCount) {}
+}
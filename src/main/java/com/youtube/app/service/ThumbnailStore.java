@@ -0,0 +1,264 @@
+package com.youtube.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Content-addressed thumbnail storage. Images are appended to fixed-size pack files that stay
+ * memory-mapped for the life of the process, so serving one is a map lookup and a copy out of
+ * the page cache rather than a file open; hot images are also kept as byte arrays in a cache
+ * bounded by total size.
+ * <p>
+ * A record is a header (magic, data length, SHA-256, content type) followed by the image. The
+ * magic is written last, so a record cut short by a crash is invisible and the next append
+ * overwrites it, and a reader never sees a half-written one.
+ * <p>
+ * Several nodes may share the directory. Appends take an exclusive lock on {@code packs.lock}
+ * and first index whatever other nodes appended, so they always write at the true end of the
+ * last pack. The index is built by scanning the packs at startup and caught up the same way
+ * on a miss, so an image another node stored is found before answering that it does not exist.
+ * Only the last pack can still grow: a new one is started only once the previous one is full.
+ */
+@Service
+public class ThumbnailStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailStore.class);
+
+    private static final int MAGIC = 0x54484D42;
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = 4 + 4 + HASH_BYTES + 1;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.thumbnails.dir}")
+    private String dir;
+
+    @Value("${app.thumbnails.pack-size}")
+    private DataSize packSize;
+
+    @Value("${app.thumbnails.max-size}")
+    private DataSize maxSize;
+
+    @Value("${app.thumbnails.cache-size}")
+    private DataSize cacheSize;
+
+    private final List<MappedByteBuffer> packs = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+
+    // How far the last pack has been indexed, which is also where the next record goes; guarded by the store's lock
+    private int indexedTo;
+
+    // Serializes appends across the nodes sharing the directory
+    private FileChannel lockChannel;
+
+    private Cache<String, Thumbnail> cache;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (packSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("app.thumbnails.pack-size must be below 2GB");
+        }
+
+        cache = Caffeine.newBuilder()
+            .maximumWeight(cacheSize.toBytes())
+            .weigher((String hash, Thumbnail thumbnail) -> thumbnail.data().length)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "thumbnails");
+        Gauge.builder("thumbnails.stored", index, ConcurrentHashMap::size)
+            .description("Thumbnails in the pack files")
+            .register(meterRegistry);
+        Gauge.builder("thumbnails.packs", packs, List::size)
+            .description("Memory-mapped thumbnail pack files")
+            .register(meterRegistry);
+
+        Path root = Paths.get(dir);
+        Files.createDirectories(root);
+        lockChannel = FileChannel.open(root.resolve("packs.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        catchUp();
+        log.info("Opened {} thumbnail packs in {} holding {} thumbnails", packs.size(), root, index.size());
+    }
+
+    /**
+     * Stores an image and returns its hash, which is also its id. Storing the same bytes again
+     * returns the existing hash without writing anything.
+     */
+    public String put(byte[] data) {
+        if (data.length == 0 || data.length > maxSize.toBytes()) {
+            throw new IllegalArgumentException("Thumbnail must be between 1 byte and " + maxSize);
+        }
+        String contentType = sniffContentType(data);
+        if (contentType == null) {
+            throw new IllegalArgumentException("Thumbnail must be a JPEG, PNG or WebP image");
+        }
+
+        byte[] digest = sha256(data);
+        String hash = HEX.formatHex(digest);
+        if (!index.containsKey(hash)) {
+            append(hash, digest, contentType, data);
+        }
+        return hash;
+    }
+
+    public Thumbnail get(String hash) {
+        if (!index.containsKey(hash)) {
+            // Possibly stored by another node since we last looked
+            catchUp();
+        }
+        Location location = index.get(hash);
+        if (location == null) {
+            return null;
+        }
+
+        return cache.get(hash, key -> {
+            byte[] data = new byte[location.length()];
+            packs.get(location.pack()).get(location.offset(), data);
+            return new Thumbnail(key, location.contentType(), data);
+        });
+    }
+
+    public static boolean isHash(String value) {
+        return value.length() == HASH_BYTES * 2 && value.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'));
+    }
+
+    private synchronized void append(String hash, byte[] digest, String contentType, byte[] data) {
+        byte[] type = contentType.getBytes(StandardCharsets.US_ASCII);
+        int recordBytes = HEADER_BYTES + type.length + data.length;
+        if (recordBytes > packSize.toBytes()) {
+            throw new IllegalArgumentException("Thumbnail does not fit in a pack");
+        }
+
+        try (FileLock lock = lockChannel.lock()) {
+            // Another node may have appended, or stored these very bytes, since we last looked
+            catchUp();
+            if (index.containsKey(hash)) {
+                return;
+            }
+            if (packs.isEmpty() || indexedTo + recordBytes > packSize.toBytes()) {
+                map(packPath(packs.size()));
+                indexedTo = 0;
+            }
+
+            int pack = packs.size() - 1;
+            MappedByteBuffer buffer = packs.get(pack);
+            int start = indexedTo;
+            int dataOffset = start + HEADER_BYTES + type.length;
+
+            buffer.putInt(start + 4, data.length);
+            buffer.put(start + 8, digest);
+            buffer.put(start + 8 + HASH_BYTES, (byte) type.length);
+            buffer.put(start + HEADER_BYTES, type);
+            buffer.put(dataOffset, data);
+            buffer.force(start, recordBytes);
+            // Commits the record: a scan only accepts records whose magic made it to disk
+            buffer.putInt(start, MAGIC);
+            buffer.force(start, 4);
+
+            indexedTo = start + recordBytes;
+            index.put(hash, new Location(pack, dataOffset, data.length, contentType));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append to thumbnail packs in " + dir, e);
+        }
+    }
+
+    /**
+     * Indexes records appended since the last pass, including packs other nodes started.
+     */
+    private synchronized void catchUp() {
+        try {
+            if (!packs.isEmpty()) {
+                indexedTo = scan(packs.get(packs.size() - 1), packs.size() - 1, indexedTo);
+            }
+            for (Path next = packPath(packs.size()); Files.exists(next); next = packPath(packs.size())) {
+                indexedTo = scan(map(next), packs.size() - 1, 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read thumbnail packs in " + dir, e);
+        }
+    }
+
+    private Path packPath(int pack) {
+        return Paths.get(dir).resolve(String.format("pack-%06d.dat", pack));
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping outlives the channel; unwritten space stays sparse on disk
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, packSize.toBytes());
+            packs.add(buffer);
+            return buffer;
+        }
+    }
+
+    // Indexes a pack's committed records from offset on and returns where the next one would go
+    private int scan(MappedByteBuffer buffer, int pack, int offset) {
+        while (offset + HEADER_BYTES <= buffer.capacity() && buffer.getInt(offset) == MAGIC) {
+            int length = buffer.getInt(offset + 4);
+            byte[] digest = new byte[HASH_BYTES];
+            buffer.get(offset + 8, digest);
+            byte[] type = new byte[buffer.get(offset + 8 + HASH_BYTES)];
+            buffer.get(offset + HEADER_BYTES, type);
+
+            int dataOffset = offset + HEADER_BYTES + type.length;
+            index.putIfAbsent(HEX.formatHex(digest), new Location(pack, dataOffset, length, new String(type, StandardCharsets.US_ASCII)));
+            offset = dataOffset + length;
+        }
+        return offset;
+    }
+
+    private static String sniffContentType(byte[] data) {
+        if (data.length >= 3 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8 && (data[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (data.length >= 8 && (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G') {
+            return "image/png";
+        }
+        if (data.length >= 12 && data[0] == 'R' && data[1] == 'I' && data[2] == 'F' && data[3] == 'F'
+                && data[8] == 'W' && data[9] == 'E' && data[10] == 'B' && data[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Location(int pack, int offset, int length, String contentType) {}
+
+    public record Thumbnail(String hash, String contentType, byte[] data) {}
+}
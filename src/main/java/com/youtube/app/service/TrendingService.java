@@ -0,0 +1,237 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.VideoRepository;
+import com.youtube.app.repository.projection.TrendingSeed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ranks READY videos by exponentially time-decayed engagement.
+ * <p>
+ * Scores use forward decay: an event at time t adds {@code weight * 2^((t - landmark) / halfLife)},
+ * so existing scores never need touching as time passes and ordering is the same as if every
+ * score were decayed to "now". The best {@code capacity} videos are kept in a skip list that
+ * events update in place; readers page through immutable published snapshots so a page walk
+ * sees one consistent order. A periodic rebuild reseeds from the database and moves the landmark.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.trending.half-life}")
+    private Duration halfLife;
+
+    @Value("${app.trending.window}")
+    private Duration window;
+
+    @Value("${app.trending.capacity}")
+    private int capacity;
+
+    @Value("${app.trending.view-weight}")
+    private double viewWeight;
+
+    @Value("${app.trending.like-weight}")
+    private double likeWeight;
+
+    @Value("${app.trending.snapshot-retention}")
+    private int snapshotRetention;
+
+    private volatile Ranking ranking;
+    private volatile Snapshot current = new Snapshot(0, List.of());
+    private final AtomicLong snapshotSequence = new AtomicLong();
+    private Map<Long, Snapshot> recentSnapshots;
+
+    @PostConstruct
+    public void init() {
+        ranking = new Ranking(System.currentTimeMillis(), capacity);
+        recentSnapshots = new LinkedHashMap<>(snapshotRetention + 1, 1f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Snapshot> eldest) {
+                return size() > snapshotRetention;
+            }
+        };
+
+        Gauge.builder("video.trending.tracked", this, service -> service.ranking.scores.size())
+            .description("Videos with a trending score")
+            .register(meterRegistry);
+    }
+
+    public void recordView(Long videoId) {
+        ranking.bump(videoId, viewWeight, System.currentTimeMillis(), halfLife.toMillis());
+    }
+
+    public void recordLike(Long videoId) {
+        ranking.bump(videoId, likeWeight, System.currentTimeMillis(), halfLife.toMillis());
+    }
+
+    /**
+     * Returns a page of the snapshot the client started walking, or of the latest
+     * snapshot when none is given or it has aged out.
+     */
+    public TrendingPage getPage(Long snapshotId, int page, int size) {
+        Snapshot snapshot = null;
+        if (snapshotId != null) {
+            synchronized (recentSnapshots) {
+                snapshot = recentSnapshots.get(snapshotId);
+            }
+        }
+        if (snapshot == null) {
+            snapshot = current;
+        }
+
+        // In long: a large page times size overflows int and would turn negative
+        int from = (int) Math.min((long) page * size, snapshot.videoIds.size());
+        int to = Math.min(from + size, snapshot.videoIds.size());
+        return new TrendingPage(snapshot.id, snapshot.videoIds.subList(from, to), snapshot.videoIds.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.publish-interval}")
+    public void publish() {
+        List<Long> ids = new ArrayList<>(capacity);
+        for (Ranked entry : ranking.top) {
+            ids.add(entry.videoId);
+        }
+
+        Snapshot snapshot = new Snapshot(snapshotSequence.incrementAndGet(), List.copyOf(ids));
+        synchronized (recentSnapshots) {
+            recentSnapshots.put(snapshot.id, snapshot);
+        }
+        current = snapshot;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.trending.rebuild-interval}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long halfLifeMillis = halfLife.toMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minus(window);
+
+        List<TrendingSeed> seeds;
+        try {
+            seeds = videoRepository.findTrendingSeeds(Video.VideoStatus.READY, cutoff);
+        } catch (RuntimeException e) {
+            log.warn("Unable to rebuild trending ranking", e);
+            return;
+        }
+
+        Ranking previous = ranking;
+        Ranking rebuilt = new Ranking(start, capacity);
+        double rescale = Math.pow(2, (double) (previous.landmark - start) / halfLifeMillis);
+
+        for (TrendingSeed seed : seeds) {
+            long createdAt = seed.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            double engagement = viewWeight * nullToZero(seed.viewCount()) + likeWeight * nullToZero(seed.likeCount());
+            double prior = engagement * Math.pow(2, (double) (createdAt - start) / halfLifeMillis);
+
+            Double live = previous.scores.get(seed.id());
+            double score = live != null ? Math.max(prior, live * rescale) : prior;
+            if (score > 0) {
+                rebuilt.scores.put(seed.id(), score);
+            }
+        }
+        rebuilt.rebuildTop();
+
+        // Events that land on the old ranking during the swap are dropped; trending is approximate
+        ranking = rebuilt;
+        publish();
+        log.debug("Rebuilt trending ranking from {} videos in {} ms", seeds.size(), System.currentTimeMillis() - start);
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static final class Ranking {
+        private static final Comparator<Ranked> ORDER = Comparator
+            .comparingDouble((Ranked r) -> r.score).reversed()
+            .thenComparing(Comparator.comparingLong((Ranked r) -> r.videoId).reversed());
+
+        final long landmark;
+        final int capacity;
+        final ConcurrentHashMap<Long, Double> scores = new ConcurrentHashMap<>();
+        final ConcurrentSkipListSet<Ranked> top = new ConcurrentSkipListSet<>(ORDER);
+        final ConcurrentHashMap<Long, Double> inTop = new ConcurrentHashMap<>();
+        volatile double threshold;
+
+        Ranking(long landmark, int capacity) {
+            this.landmark = landmark;
+            this.capacity = capacity;
+        }
+
+        void bump(Long videoId, double weight, long now, long halfLifeMillis) {
+            double increment = weight * Math.pow(2, (double) (now - landmark) / halfLifeMillis);
+            double updated = scores.merge(videoId, increment, Double::sum);
+
+            // Most events are for videos nowhere near the top; skip the lock for those
+            if (updated <= threshold && !inTop.containsKey(videoId)) {
+                return;
+            }
+
+            synchronized (this) {
+                double latest = scores.get(videoId);
+                Double previous = inTop.remove(videoId);
+                if (previous != null) {
+                    top.remove(new Ranked(videoId, previous));
+                }
+
+                if (top.size() < capacity || latest > top.last().score) {
+                    top.add(new Ranked(videoId, latest));
+                    inTop.put(videoId, latest);
+                    if (top.size() > capacity) {
+                        inTop.remove(top.pollLast().videoId);
+                    }
+                }
+                threshold = top.size() < capacity ? 0 : top.last().score;
+            }
+        }
+
+        void rebuildTop() {
+            PriorityQueue<Ranked> heap = new PriorityQueue<>(capacity + 1, ORDER.reversed());
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                heap.add(new Ranked(entry.getKey(), entry.getValue()));
+                if (heap.size() > capacity) {
+                    heap.poll();
+                }
+            }
+
+            for (Ranked entry : heap) {
+                top.add(entry);
+                inTop.put(entry.videoId, entry.score);
+            }
+            threshold = top.size() < capacity ? 0 : top.last().score;
+        }
+    }
+
+    private record Ranked(long videoId, double score) {}
+
+    private record Snapshot(long id, List<Long> videoIds) {}
+
+    public record TrendingPage(long snapshotId, List<Long> videoIds, int total) {}
+}
@@ -0,0 +1,353 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.UploadSession;
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.UploadSessionRepository;
+import com.youtube.app.repository.UserRepository;
+import com.youtube.app.repository.VideoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@Transactional
+public class UploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadService.class);
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProcessingQueueService processingQueueService;
+
+    @Autowired
+    private VideoBlobStore videoBlobStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.video.storage-dir}")
+    private String storageDir;
+
+    @Value("${app.upload.max-file-size}")
+    private DataSize maxFileSize;
+
+    @Value("${app.upload.max-chunk-size}")
+    private DataSize maxChunkSize;
+
+    @Value("${app.upload.session-ttl}")
+    private Duration sessionTtl;
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    // One writer per session on this node; the conditional offset update guards across nodes
+    private final ConcurrentHashMap<String, ReentrantLock> writeLocks = new ConcurrentHashMap<>();
+
+    // Content hashes computed as chunks are written, only touched under the session's write lock.
+    // A session whose chunks were not all received by this node, in order, is hashed on completion instead.
+    private final ConcurrentHashMap<String, RunningDigest> digests = new ConcurrentHashMap<>();
+
+    // Finished hashes, published for complete()
+    private final ConcurrentHashMap<String, String> contentHashes = new ConcurrentHashMap<>();
+
+    private Counter receivedBytes;
+    private Timer chunkTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        receivedBytes = Counter.builder("video.upload.bytes")
+            .description("Upload bytes written to part files")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        chunkTimer = Timer.builder("video.upload.chunk")
+            .description("Time to receive and write one upload chunk")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    public UploadSession createSession(Long userId, String title, String description, String fileName, long totalSize) {
+        if (totalSize > maxFileSize.toBytes()) {
+            throw new RuntimeException("File exceeds maximum size of " + maxFileSize.toMegabytes() + "MB");
+        }
+
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), userId, fileName, totalSize);
+        session.setTitle(title);
+        session.setDescription(description);
+
+        Path partPath = partPath(session.getId());
+        try {
+            Files.createDirectories(partPath.getParent());
+            // Reserve the full length up front so chunks are positional writes into an existing file
+            try (RandomAccessFile file = new RandomAccessFile(partPath.toFile(), "rw")) {
+                file.setLength(totalSize);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to allocate upload storage", e);
+        }
+
+        return uploadSessionRepository.save(session);
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSession getSession(String sessionId, Long userId) {
+        return uploadSessionRepository.findByIdAndUserId(sessionId, userId)
+            .orElseThrow(() -> new RuntimeException("Upload session not found"));
+    }
+
+    /**
+     * Streams one chunk from the request body into the part file at {@code offset}.
+     * Bytes that arrive before a dropped connection are kept and the offset advanced,
+     * so the client resumes from wherever the server actually got to.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long appendChunk(String sessionId, Long userId, long offset, long contentLength, InputStream body) throws IOException {
+        UploadSession session = getSession(sessionId, userId);
+
+        ReentrantLock lock = writeLocks.computeIfAbsent(sessionId, id -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new OffsetMismatchException(session.getBytesReceived());
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            session = getSession(sessionId, userId);
+            if (offset != session.getBytesReceived()) {
+                throw new OffsetMismatchException(session.getBytesReceived());
+            }
+
+            long remaining = session.getTotalSize() - offset;
+            long length = contentLength >= 0 ? contentLength : Math.min(remaining, maxChunkSize.toBytes());
+            if (length > remaining || length > maxChunkSize.toBytes()) {
+                throw new RuntimeException("Chunk exceeds remaining upload size or maximum chunk size");
+            }
+
+            RunningDigest digest = digestFrom(sessionId, offset);
+            long written = 0;
+            boolean recorded = true;
+            try (FileChannel channel = FileChannel.open(partPath(sessionId), StandardOpenOption.WRITE)) {
+                ReadableByteChannel source = Channels.newChannel(body);
+                ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+                try {
+                    while (written < length) {
+                        buffer.clear().limit((int) Math.min(COPY_BUFFER_BYTES, length - written));
+                        int n = source.read(buffer);
+                        if (n <= 0) {
+                            break;
+                        }
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            written += channel.write(buffer, offset + written);
+                        }
+                        // Only bytes already on their way to disk are hashed, so the digest never runs ahead of the file
+                        if (digest != null) {
+                            digest.update(buffer.array(), n);
+                        }
+                    }
+                } finally {
+                    channel.force(false);
+                    receivedBytes.increment(written);
+                    if (written > 0) {
+                        recorded = uploadSessionRepository.advanceOffset(sessionId, offset, offset + written, LocalDateTime.now()) == 1;
+                    }
+                    if (!recorded) {
+                        // Another node moved the offset first; the digest holds bytes the session never recorded
+                        digests.remove(sessionId);
+                    } else if (digest != null && digest.position() == session.getTotalSize()) {
+                        digests.remove(sessionId);
+                        contentHashes.put(sessionId, digest.finish());
+                    }
+                }
+            }
+
+            if (!recorded) {
+                throw new OffsetMismatchException(getSession(sessionId, userId).getBytesReceived());
+            }
+            return offset + written;
+        } finally {
+            sample.stop(chunkTimer);
+            lock.unlock();
+            writeLocks.remove(sessionId, lock);
+        }
+    }
+
+    /**
+     * Turns a fully received session into a video queued for processing. A file not hashed while
+     * its chunks arrived is hashed first, outside the transaction, so no connection is held for it.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Video complete(String sessionId, Long userId) {
+        UploadSession received = getSession(sessionId, userId);
+        if (!received.isComplete()) {
+            throw new RuntimeException("Upload incomplete: " + received.getBytesReceived() + " of " + received.getTotalSize() + " bytes received");
+        }
+
+        String computed = contentHashes.remove(sessionId);
+        String hash = computed != null ? computed : hashFile(partPath(sessionId));
+        try {
+            return transactionTemplate.execute(status -> createVideo(sessionId, userId, hash));
+        } catch (RuntimeException e) {
+            // The session and its part file outlive a rollback, so keep the hash for the retry
+            if (uploadSessionRepository.existsById(sessionId)) {
+                contentHashes.putIfAbsent(sessionId, hash);
+            }
+            throw e;
+        }
+    }
+
+    private Video createVideo(String sessionId, Long userId, String hash) {
+        // Read again inside the transaction: a concurrent complete may have consumed the session
+        UploadSession session = getSession(sessionId, userId);
+        String filePath = videoBlobStore.store(partPath(sessionId), hash, extensionOf(session.getFileName()), session.getTotalSize());
+
+        Video video = new Video(session.getTitle(), filePath, userRepository.getReferenceById(userId));
+        video.setDescription(session.getDescription());
+        video.setFileSize(session.getTotalSize());
+        video.setContentHash(hash);
+        video.setStatus(Video.VideoStatus.PROCESSING);
+        video = videoRepository.save(video);
+        processingQueueService.enqueue(video.getId());
+
+        uploadSessionRepository.delete(session);
+        return video;
+    }
+
+    @Scheduled(fixedDelayString = "${app.upload.cleanup-interval}")
+    public void purgeExpiredSessions() {
+        for (UploadSession session : uploadSessionRepository.findByUpdatedAtBefore(LocalDateTime.now().minus(sessionTtl))) {
+            try {
+                Files.deleteIfExists(partPath(session.getId()));
+                digests.remove(session.getId());
+                contentHashes.remove(session.getId());
+                uploadSessionRepository.delete(session);
+            } catch (IOException e) {
+                log.warn("Unable to remove expired upload {}", session.getId(), e);
+            }
+        }
+    }
+
+    // Continues the session's running hash if it covers exactly the bytes before this chunk
+    private RunningDigest digestFrom(String sessionId, long offset) {
+        if (offset == 0) {
+            RunningDigest digest = new RunningDigest(sha256());
+            digests.put(sessionId, digest);
+            return digest;
+        }
+
+        RunningDigest digest = digests.get(sessionId);
+        if (digest == null || digest.position() != offset) {
+            digests.remove(sessionId);
+            return null;
+        }
+        return digest;
+    }
+
+    private String hashFile(Path path) {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to hash upload", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Path partPath(String sessionId) {
+        return Paths.get(storageDir, ".uploads", sessionId + ".part");
+    }
+
+    private String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot == fileName.length() - 1) {
+            return "";
+        }
+        String extension = fileName.substring(dot).toLowerCase();
+        return extension.matches("\\.[a-z0-9]{1,8}") ? extension : "";
+    }
+
+    private static final class RunningDigest {
+        private final MessageDigest digest;
+        private long position;
+
+        RunningDigest(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        void update(byte[] bytes, int length) {
+            digest.update(bytes, 0, length);
+            position += length;
+        }
+
+        long position() {
+            return position;
+        }
+
+        String finish() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    public static class OffsetMismatchException extends RuntimeException {
+        private final long currentOffset;
+
+        public OffsetMismatchException(long currentOffset) {
+            super("Upload offset mismatch, expected " + currentOffset);
+            this.currentOffset = currentOffset;
+        }
+
+        public long getCurrentOffset() { return currentOffset; }
+    }
+}
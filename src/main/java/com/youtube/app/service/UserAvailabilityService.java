@@ -0,0 +1,262 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.User;
+import com.youtube.app.repository.UserRepository;
+import com.youtube.app.repository.projection.UserKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Answers "is this username/email taken?" from Bloom filters over the users table, so the
+ * signup form's availability checks only reach the database when a name might be taken.
+ * <p>
+ * The filters are built from a keyset scan over user ids, topped up on a schedule with the users
+ * created since the newest one seen (which also picks up users registered on other nodes) and on
+ * every local registration. A full rebuild resizes them as the table grows. A user registered
+ * elsewhere since the last top-up reads as available until the next one. Each top-up re-scans
+ * {@code app.availability.lag-margin} behind its watermark, so a user whose transaction
+ * committed after a later one was already seen is still picked up. Either way the unique
+ * constraints still reject the registration itself.
+ */
+@Service
+public class UserAvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailabilityService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.availability.false-positive-rate}")
+    private double falsePositiveRate;
+
+    @Value("${app.availability.expected-users}")
+    private long expectedUsers;
+
+    // Headroom over the current user count, so top-ups do not push the filter past its rate before the next rebuild
+    @Value("${app.availability.growth-factor}")
+    private double growthFactor;
+
+    @Value("${app.availability.batch-size}")
+    private int batchSize;
+
+    // How far behind the newest user seen each top-up looks again, for registrations that committed late
+    @Value("${app.availability.lag-margin}")
+    private Duration lagMargin;
+
+    private volatile Filters filters;
+
+    private Timer rebuildTimer;
+    private Counter usernameAvailable;
+    private Counter usernameTaken;
+    private Counter usernameFalsePositive;
+    private Counter emailAvailable;
+    private Counter emailTaken;
+    private Counter emailFalsePositive;
+
+    @PostConstruct
+    public void registerMetrics() {
+        rebuildTimer = Timer.builder("auth.availability.rebuild")
+            .description("Time to rebuild the availability filters from the users table")
+            .register(meterRegistry);
+
+        usernameAvailable = checkCounter("username", "available");
+        usernameTaken = checkCounter("username", "taken");
+        usernameFalsePositive = checkCounter("username", "false_positive");
+        emailAvailable = checkCounter("email", "available");
+        emailTaken = checkCounter("email", "taken");
+        emailFalsePositive = checkCounter("email", "false_positive");
+
+        Gauge.builder("auth.availability.fpp.target", this, service -> service.falsePositiveRate)
+            .description("Configured false-positive rate of the availability filters")
+            .register(meterRegistry);
+        filterGauge("auth.availability.fpp.expected", "username", "False-positive rate implied by the filter's fill", BloomFilter::expectedFpp);
+        filterGauge("auth.availability.fpp.expected", "email", "False-positive rate implied by the filter's fill", BloomFilter::expectedFpp);
+        filterGauge("auth.availability.entries", "username", "Values added to the filter", BloomFilter::approximateCount);
+        filterGauge("auth.availability.entries", "email", "Values added to the filter", BloomFilter::approximateCount);
+        Gauge.builder("auth.availability.memory", this, service -> {
+                Filters current = service.filters;
+                return current == null ? 0 : current.usernames.sizeInBytes() + current.emails.sizeInBytes();
+            })
+            .description("Heap held by the availability filters")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    public boolean isUsernameTaken(String username) {
+        Filters current = filters;
+        if (current != null && !current.usernames.mightContain(username)) {
+            usernameAvailable.increment();
+            return false;
+        }
+        return confirm(userRepository::existsByUsername, username, current != null ? current.usernames : null,
+            usernameTaken, usernameFalsePositive);
+    }
+
+    public boolean isEmailTaken(String email) {
+        Filters current = filters;
+        if (current != null && !current.emails.mightContain(email)) {
+            emailAvailable.increment();
+            return false;
+        }
+        return confirm(userRepository::existsByEmail, email, current != null ? current.emails : null,
+            emailTaken, emailFalsePositive);
+    }
+
+    /**
+     * Adds a user this node just created, so an immediate re-check of the same name is not answered "available".
+     */
+    public void record(User user) {
+        Filters current = filters;
+        if (current != null) {
+            current.usernames.put(user.getUsername());
+            current.emails.put(user.getEmail());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.refresh-interval}")
+    public synchronized void refresh() {
+        Filters current = filters;
+        if (current == null) {
+            return;
+        }
+
+        try {
+            current.watermark = topUp(current, current.watermark);
+        } catch (RuntimeException e) {
+            log.warn("Availability filter refresh failed", e);
+            return;
+        }
+
+        // Past capacity the false-positive rate climbs; resize now rather than waiting for the next rebuild
+        if (current.usernames.approximateCount() > current.usernames.capacity()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.availability.rebuild-interval}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Filters rebuilt;
+        try {
+            long capacity = Math.max(expectedUsers, (long) (userRepository.count() * growthFactor));
+            rebuilt = new Filters(
+                BloomFilter.create(capacity, falsePositiveRate),
+                BloomFilter.create(capacity, falsePositiveRate)
+            );
+            // Users created while the scan runs are picked up again by the first top-up
+            rebuilt.watermark = load(rebuilt, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("Unable to rebuild availability filters", e);
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        filters = rebuilt;
+        log.debug("Rebuilt availability filters from {} users in {} ms ({} bytes)",
+            rebuilt.usernames.approximateCount(), elapsed / 1_000_000,
+            rebuilt.usernames.sizeInBytes() + rebuilt.emails.sizeInBytes());
+    }
+
+    private boolean confirm(Predicate<String> exists, String value, BloomFilter filter, Counter taken, Counter falsePositive) {
+        boolean result = exists.test(value);
+        if (result) {
+            taken.increment();
+            // Registered on another node since the last top-up; spare the next check the database round trip
+            if (filter != null) {
+                filter.put(value);
+            }
+        } else if (filter != null) {
+            falsePositive.increment();
+        }
+        return result;
+    }
+
+    private LocalDateTime load(Filters target, LocalDateTime watermark) {
+        long afterId = 0L;
+        while (true) {
+            List<UserKeys> batch = userRepository.findKeysAfter(afterId, PageRequest.ofSize(batchSize));
+            for (UserKeys keys : batch) {
+                watermark = add(target, keys, watermark);
+                afterId = keys.id();
+            }
+            if (batch.size() < batchSize) {
+                return watermark;
+            }
+        }
+    }
+
+    private LocalDateTime topUp(Filters target, LocalDateTime watermark) {
+        LocalDateTime since = watermark.minus(lagMargin);
+        long afterId = 0L;
+        while (true) {
+            List<UserKeys> batch = userRepository.findKeysCreatedSince(since, afterId, PageRequest.ofSize(batchSize));
+            for (UserKeys keys : batch) {
+                watermark = add(target, keys, watermark);
+                since = keys.createdAt();
+                afterId = keys.id();
+            }
+            if (batch.size() < batchSize) {
+                return watermark;
+            }
+        }
+    }
+
+    private LocalDateTime add(Filters target, UserKeys keys, LocalDateTime watermark) {
+        target.usernames.put(keys.username());
+        target.emails.put(keys.email());
+        return keys.createdAt() != null && keys.createdAt().isAfter(watermark) ? keys.createdAt() : watermark;
+    }
+
+    private Counter checkCounter(String field, String result) {
+        return Counter.builder("auth.availability.checks")
+            .description("Availability checks by outcome; only taken and false_positive reach the database")
+            .tag("field", field)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private void filterGauge(String name, String field, String description, ToDoubleFunction<BloomFilter> value) {
+        Gauge.builder(name, this, service -> {
+                Filters current = service.filters;
+                if (current == null) {
+                    return 0;
+                }
+                return value.applyAsDouble("username".equals(field) ? current.usernames : current.emails);
+            })
+            .description(description)
+            .tag("field", field)
+            .register(meterRegistry);
+    }
+
+    private static final class Filters {
+        final BloomFilter usernames;
+        final BloomFilter emails;
+        LocalDateTime watermark;
+
+        Filters(BloomFilter usernames, BloomFilter emails) {
+            this.usernames = usernames;
+            this.emails = emails;
+        }
+    }
+}
@@ -1,52 +1,179 @@
 package com.youtube.app.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.youtube.app.model.User;
 import com.youtube.app.repository.UserRepository;
+import com.youtube.app.repository.projection.UserProfile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Users by username are served from a bounded in-process cache of immutable {@link UserSnapshot}s
+ * (Caffeine, W-TinyLFU eviction), since every login and every profile view looks one up and
+ * popular creators are read far more often than they change. Writes through this service evict
+ * the entry, again after commit so a read racing the transaction cannot re-cache the old row.
+ * Changes made on other nodes show up once the entry's TTL runs out.
+ */
 @Service
 @Transactional
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
+    
+    // Must match the names declared on User's @Table
+    private static final String USERNAME_CONSTRAINT = "uk_users_username";
+    private static final String EMAIL_CONSTRAINT = "uk_users_email";
+    private static final Pattern CONFLICT_KEY = Pattern.compile("Key \\((\\w+)\\)=");
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+    
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${app.users.cache.max-size}")
+    private long cacheMaxSize;
+    
+    @Value("${app.users.cache.ttl}")
+    private Duration cacheTtl;
+    
+    private Cache<String, UserSnapshot> snapshots;
+    
+    @PostConstruct
+    public void initCache() {
+        snapshots = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(cacheTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "users");
+    }
+    
+    // SUPPORTS: a cache hit should not open a transaction and check out a connection
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        UserSnapshot snapshot = getSnapshot(username);
+        if (snapshot == null) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        return snapshot.toUser();
+    }
+    
+    /**
+     * Stores a rehash made at login; called by the authentication provider when the stored hash's cost is out of date.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User existing = userRepository.findByUsername(user.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        existing.setPassword(newPassword);
+        evict(existing.getUsername());
+        return userRepository.save(existing);
     }
     
+    /**
+     * Hashes the password before the transaction opens, so the slow BCrypt work never holds a connection.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User createUser(String username, String email, String password) {
-        if (userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists");
-        }
-        
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists");
-        }
-        
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
         user.setPassword(passwordEncoder.encode(password));
         user.setDisplayName(username);
         
-        return userRepository.save(user);
+        // A single INSERT: the unique constraints arbitrate, so concurrent signups cannot both pass a pre-check
+        try {
+            User saved = transactionTemplate.execute(status -> userRepository.saveAndFlush(user));
+            userAvailabilityService.record(saved);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            String field = conflictingField(e);
+            if (field == null) {
+                throw e;
+            }
+            throw new DuplicateUserException(field);
+        }
     }
     
+    /**
+     * Returns a detached copy; changes to it are not persisted.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public User findByUsername(String username) {
-        return userRepository.findByUsername(username)
+        UserSnapshot snapshot = getSnapshot(username);
+        if (snapshot == null) {
+            throw new RuntimeException("User not found");
+        }
+        return snapshot.toUser();
+    }
+    
+    public User updateProfile(String username, String displayName, String profileImageUrl) {
+        User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
+        if (displayName != null) {
+            user.setDisplayName(displayName);
+        }
+        if (profileImageUrl != null) {
+            user.setProfileImageUrl(profileImageUrl);
+        }
+        evict(username);
+        return user;
+    }
+    
+    /**
+     * Whether the user exists and may sign in. Read from the user cache on every authenticated request.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean isEnabled(String username) {
+        UserSnapshot snapshot = getSnapshot(username);
+        return snapshot != null && snapshot.enabled();
+    }
+    
+    public void setEnabled(String username, boolean enabled) {
+        User user = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setEnabled(enabled);
+        evict(username);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public UserProfile getProfile(String username) {
+        UserSnapshot snapshot = getSnapshot(username);
+        if (snapshot == null) {
+            throw new RuntimeException("User not found");
+        }
+        return snapshot.toProfile();
     }
     
     public User findByEmail(String email) {
@@ -54,11 +181,64 @@ public class UserService implements UserDetailsService {
             .orElseThrow(() -> new RuntimeException("User not found"));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        return userAvailabilityService.isUsernameTaken(username);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return userAvailabilityService.isEmailTaken(email);
+    }
+    
+    private UserSnapshot getSnapshot(String username) {
+        // Misses are not cached: a name that is free now may be registered a moment later
+        return snapshots.get(username, key -> userRepository.findByUsername(key).map(UserSnapshot::of).orElse(null));
+    }
+    
+    private void evict(String username) {
+        snapshots.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshots.invalidate(username);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Works out which unique field an insert collided on: from the constraint name when it is one
+     * of ours, otherwise from the "Key (column)=" detail Postgres attaches to the violation, which
+     * also covers tables whose constraints were created before they were named.
+     */
+    private String conflictingField(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            String constraint = violation.getConstraintName().toLowerCase(Locale.ROOT);
+            if (constraint.contains(USERNAME_CONSTRAINT)) {
+                return "username";
+            }
+            if (constraint.contains(EMAIL_CONSTRAINT)) {
+                return "email";
+            }
+        }
+        
+        Matcher key = CONFLICT_KEY.matcher(String.valueOf(e.getMostSpecificCause().getMessage()));
+        if (key.find() && ("username".equals(key.group(1)) || "email".equals(key.group(1)))) {
+            return key.group(1);
+        }
+        return null;
+    }
+    
+    public static class DuplicateUserException extends RuntimeException {
+        private final String field;
+        
+        public DuplicateUserException(String field) {
+            super("username".equals(field) ? "Username already exists" : "Email already exists");
+            this.field = field;
+        }
+        
+        public String getField() { return field; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.User;
+import com.youtube.app.repository.projection.UserProfile;
+
+import java.time.LocalDateTime;
+
+/**
+ * An immutable copy of a users row, safe to share between requests from the user cache.
+ * Callers that need a {@link User} get a fresh detached one from {@link #toUser()}, so
+ * nothing they do to it can reach the cache or the persistence context.
+ */
+public record UserSnapshot(
+    Long id,
+    String username,
+    String email,
+    String password,
+    String displayName,
+    String profileImageUrl,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    boolean enabled
+) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getPassword(),
+            user.getDisplayName(),
+            user.getProfileImageUrl(),
+            user.getCreatedAt(),
+            user.getUpdatedAt(),
+            user.isEnabled()
+        );
+    }
+
+    public User toUser() {
+        User user = new User(username, email, password);
+        user.setId(id);
+        user.setDisplayName(displayName);
+        user.setProfileImageUrl(profileImageUrl);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        user.setEnabled(enabled);
+        return user;
+    }
+
+    public UserProfile toProfile() {
+        return new UserProfile(id, username, displayName, profileImageUrl, createdAt);
+    }
+}
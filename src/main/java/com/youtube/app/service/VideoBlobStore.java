@@ -0,0 +1,206 @@
+package com.youtube.app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stores video files by content: a file lives at {@code blobs/ab/cd/<sha256><ext>} under the
+ * storage directory, and every video with the same bytes shares it through a reference count in
+ * {@code video_blobs}. The two-level shard keeps directories small however many files there are.
+ * <p>
+ * Both operations join the caller's transaction, so a reference is taken or dropped together
+ * with the video row that holds it, and neither touches the upload itself until the transaction
+ * commits: a rolled-back store leaves the part file where it was, so the upload can be completed
+ * again. The row lock orders them against each other: a release that takes the count to zero
+ * deletes the row and moves the file aside while still holding the lock, so an upload of the same
+ * bytes waiting on that row finds neither and writes its own copy. The file is only deleted once
+ * the release commits, and put back if it rolls back.
+ */
+@Service
+public class VideoBlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoBlobStore.class);
+
+    private static final String ACQUIRE_SQL = "UPDATE video_blobs SET ref_count = ref_count + 1 WHERE hash = ?";
+    private static final String INSERT_SQL =
+        "INSERT INTO video_blobs (hash, file_path, size, ref_count, created_at) VALUES (?, ?, ?, 1, ?) ON CONFLICT DO NOTHING";
+    private static final String RELEASE_SQL = "UPDATE video_blobs SET ref_count = ref_count - 1 WHERE hash = ? AND ref_count > 0";
+    private static final String RECLAIM_SQL = "DELETE FROM video_blobs WHERE hash = ? AND ref_count = 0";
+    private static final String PATH_SQL = "SELECT file_path FROM video_blobs WHERE hash = ?";
+
+    // A conflicting insert means another upload just created the blob; the next pass references it
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.video.storage-dir}")
+    private String storageDir;
+
+    private Counter storedNew;
+    private Counter storedDuplicate;
+    private Counter duplicateBytes;
+    private Counter reclaimed;
+
+    @PostConstruct
+    public void registerMetrics() {
+        storedNew = storedCounter("new");
+        storedDuplicate = storedCounter("duplicate");
+        duplicateBytes = Counter.builder("video.blobs.deduplicated")
+            .description("Bytes not written because an identical file was already stored")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        reclaimed = Counter.builder("video.blobs.reclaimed")
+            .description("Files deleted after their last video was deleted")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Takes a reference to the blob with the given hash. Once the transaction commits,
+     * {@code source} becomes the blob's file if there is none yet and is deleted otherwise.
+     * Returns the blob's path relative to the storage directory.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String store(Path source, String hash, String extension, long size) {
+        String ownPath = "blobs/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (jdbcTemplate.update(ACQUIRE_SQL, hash) > 0) {
+                String filePath = jdbcTemplate.queryForObject(PATH_SQL, String.class, hash);
+                Path target = resolvePath(filePath);
+                afterCommit(hash, () -> {
+                    if (Files.isRegularFile(target)) {
+                        Files.deleteIfExists(source);
+                        storedDuplicate.increment();
+                        duplicateBytes.increment(size);
+                    } else {
+                        // The row outlived its file (e.g. lost with a disk), or its creator has not moved
+                        // it in yet; these bytes are the same either way, so put them there
+                        log.warn("Blob {} was missing from {}, restoring it from the new upload", hash, target);
+                        move(source, target);
+                    }
+                });
+                return filePath;
+            }
+
+            if (jdbcTemplate.update(INSERT_SQL, hash, ownPath, size, Timestamp.valueOf(LocalDateTime.now())) > 0) {
+                Path target = resolvePath(ownPath);
+                afterCommit(hash, () -> {
+                    move(source, target);
+                    storedNew.increment();
+                });
+                return ownPath;
+            }
+        }
+        throw new IllegalStateException("Unable to reference video blob " + hash);
+    }
+
+    /**
+     * Drops one reference to the blob; the last one deletes its file once the transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String hash) {
+        if (jdbcTemplate.update(RELEASE_SQL, hash) == 0) {
+            return;
+        }
+
+        List<String> paths = jdbcTemplate.queryForList(PATH_SQL, String.class, hash);
+        if (paths.isEmpty() || jdbcTemplate.update(RECLAIM_SQL, hash) == 0) {
+            return;
+        }
+
+        Path file = resolvePath(paths.get(0));
+        Path aside = file.resolveSibling(file.getFileName() + ".reclaim-" + UUID.randomUUID());
+        try {
+            Files.move(file, aside, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Unable to reclaim blob {} at {}", hash, file, e);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        Files.deleteIfExists(aside);
+                        reclaimed.increment();
+                    } else {
+                        restore(aside, file);
+                    }
+                } catch (IOException e) {
+                    log.warn("Unable to finish reclaiming blob {} at {}", hash, aside, e);
+                }
+            }
+        });
+    }
+
+    private void afterCommit(String hash, FileAction action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (IOException e) {
+                    log.error("Unable to move the upload for blob {} into place", hash, e);
+                }
+            }
+        });
+    }
+
+    private Path resolvePath(String filePath) {
+        return Paths.get(storageDir).resolve(filePath).normalize();
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        // Same bytes under the same name, so replacing a leftover from an earlier attempt is harmless
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void restore(Path aside, Path file) throws IOException {
+        try {
+            Files.move(aside, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // An upload of the same bytes already put a copy back
+            Files.deleteIfExists(aside);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileAction {
+        void run() throws IOException;
+    }
+
+    private Counter storedCounter(String result) {
+        return Counter.builder("video.blobs.stored")
+            .description("Uploads stored as a new file or as a reference to an identical one")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
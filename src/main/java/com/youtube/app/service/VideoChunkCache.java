@@ -0,0 +1,243 @@
+package com.youtube.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the opening chunks of video files in direct memory, outside the heap, so the reads every
+ * playback starts with do not go to disk. The budget is cut into fixed-size slabs up front; the
+ * cache maps (file, chunk) to a slab and Caffeine's TinyLFU policy decides what stays, so a burst
+ * of one-off reads cannot push out chunks that are fetched all the time.
+ * <p>
+ * Files are content-addressed and never change under a path, so entries are never invalidated.
+ * An evicted slab can be refilled while a reader is still copying from it; each slab carries a
+ * generation that the reader checks after copying, and reads the piece from disk if it moved on.
+ */
+@Service
+public class VideoChunkCache {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoChunkCache.class);
+
+    // Direct buffers are capped at 2GB each, so the budget is allocated in blocks of slabs
+    private static final long BLOCK_BYTES = 1L << 30;
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.video.chunk-cache.size}")
+    private DataSize size;
+
+    @Value("${app.video.chunk-cache.chunk-size}")
+    private DataSize chunkSize;
+
+    @Value("${app.video.chunk-cache.head-size}")
+    private DataSize headSize;
+
+    private final ConcurrentLinkedQueue<Slab> free = new ConcurrentLinkedQueue<>();
+
+    private Cache<ChunkKey, Chunk> chunks;
+    private int slabCount;
+    private Counter servedBytes;
+
+    @PostConstruct
+    public void allocate() {
+        if (chunkSize.toBytes() <= 0 || chunkSize.toBytes() > BLOCK_BYTES) {
+            throw new IllegalStateException("app.video.chunk-cache.chunk-size must be between 1 byte and 1GB");
+        }
+
+        long budget = size.toBytes();
+        long available = availableDirectMemory();
+        if (budget > available) {
+            // Allocating anyway would fail startup with an OutOfMemoryError; run uncached instead
+            log.error("app.video.chunk-cache.size is {} but only {} bytes of direct memory are free; "
+                + "raise -XX:MaxDirectMemorySize or lower the size. The video chunk cache is disabled", size, available);
+            budget = 0;
+        }
+
+        int slabBytes = (int) chunkSize.toBytes();
+        slabCount = (int) Math.min(Integer.MAX_VALUE, budget / slabBytes);
+        int perBlock = (int) (BLOCK_BYTES / slabBytes);
+        for (int allocated = 0; allocated < slabCount; ) {
+            int count = Math.min(perBlock, slabCount - allocated);
+            ByteBuffer block = ByteBuffer.allocateDirect(count * slabBytes);
+            for (int i = 0; i < count; i++) {
+                free.add(new Slab(block.slice(i * slabBytes, slabBytes)));
+            }
+            allocated += count;
+        }
+
+        // Headroom so a miss finds a free slab while the eviction that makes room is still pending
+        long capacity = Math.max(0, slabCount - Math.max(1, slabCount / 16));
+        chunks = Caffeine.newBuilder()
+            .maximumSize(capacity)
+            .executor(Runnable::run)
+            .evictionListener((ChunkKey key, Chunk chunk, RemovalCause cause) -> recycle(chunk.slab()))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, chunks, "video.chunks");
+
+        servedBytes = Counter.builder("video.chunks.served")
+            .description("Video bytes served from the chunk cache instead of disk")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("video.chunks.capacity", () -> (double) slabCount * slabBytes)
+            .description("Direct memory reserved for cached video chunks")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        if (slabCount > 0) {
+            log.info("Allocated {} video chunk slabs of {} off-heap", slabCount, chunkSize);
+        }
+    }
+
+    // The JVM's direct memory limit, which defaults to the maximum heap, less what is already in use
+    private static long availableDirectMemory() {
+        long limit = Runtime.getRuntime().maxMemory();
+        HotSpotDiagnosticMXBean hotspot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        if (hotspot != null) {
+            long configured = Long.parseLong(hotspot.getVMOption("MaxDirectMemorySize").getValue());
+            if (configured > 0) {
+                limit = configured;
+            }
+        }
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                limit -= pool.getMemoryUsed();
+            }
+        }
+        return Math.max(0, limit);
+    }
+
+    /**
+     * How many opening bytes of each file the cache holds; zero when it is disabled.
+     */
+    public long prefix() {
+        return slabCount > 0 ? headSize.toBytes() : 0;
+    }
+
+    /**
+     * Copies [{@code position}, {@code end}) of the file to {@code out}, from the cache where it
+     * can and from {@code channel} otherwise. The range must lie within the {@link #prefix}.
+     */
+    public void transfer(Path path, FileChannel channel, long position, long end, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        long chunkBytes = chunkSize.toBytes();
+
+        while (position < end) {
+            long index = position / chunkBytes;
+            long chunkStart = index * chunkBytes;
+            long chunkEnd = Math.min(end, chunkStart + chunkBytes);
+            Chunk chunk = load(new ChunkKey(path, index), channel, chunkStart);
+
+            while (position < chunkEnd) {
+                int length = (int) Math.min(buffer.length, chunkEnd - position);
+                int offset = (int) (position - chunkStart);
+                if (chunk != null && offset + length <= chunk.length()
+                        && chunk.slab().read(chunk.generation(), offset, buffer, length)) {
+                    servedBytes.increment(length);
+                } else {
+                    readFully(channel, ByteBuffer.wrap(buffer, 0, length), position);
+                }
+                out.write(buffer, 0, length);
+                position += length;
+            }
+        }
+    }
+
+    private Chunk load(ChunkKey key, FileChannel channel, long chunkStart) {
+        try {
+            return chunks.get(key, k -> fill(channel, chunkStart));
+        } catch (UncheckedIOException e) {
+            log.debug("Unable to cache chunk {} of {}", key.index(), key.path(), e);
+            return null;
+        }
+    }
+
+    // Returns null, caching nothing, when every slab is in use
+    private Chunk fill(FileChannel channel, long chunkStart) {
+        Slab slab = free.poll();
+        if (slab == null) {
+            return null;
+        }
+
+        try {
+            int length = (int) Math.min(slab.buffer.capacity(), channel.size() - chunkStart);
+            if (length <= 0) {
+                free.add(slab);
+                return null;
+            }
+            ByteBuffer target = slab.buffer.duplicate().limit(length);
+            readFully(channel, target, chunkStart);
+            return new Chunk(slab, slab.generation.get(), length);
+        } catch (IOException e) {
+            free.add(slab);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recycle(Slab slab) {
+        slab.generation.incrementAndGet();
+        free.add(slab);
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, at);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + at);
+            }
+            at += read;
+        }
+    }
+
+    private static final class Slab {
+
+        private final ByteBuffer buffer;
+        private final AtomicInteger generation = new AtomicInteger();
+
+        Slab(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        // False if the slab was recycled before or during the copy, in which case the bytes are not to be used
+        boolean read(int expected, int offset, byte[] target, int length) {
+            if (generation.get() != expected) {
+                return false;
+            }
+            buffer.get(offset, target, 0, length);
+            // Keeps the copy above from being reordered past the second check
+            VarHandle.acquireFence();
+            return generation.get() == expected;
+        }
+    }
+
+    private record ChunkKey(Path path, long index) {}
+
+    private record Chunk(Slab slab, int generation, int length) {}
+}
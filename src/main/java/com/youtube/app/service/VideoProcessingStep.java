@@ -0,0 +1,14 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+
+import java.nio.file.Path;
+
+/**
+ * One stage of the PROCESSING pipeline. Steps run in {@code @Order} on a worker thread,
+ * outside any transaction; throwing fails the attempt and schedules a retry.
+ */
+public interface VideoProcessingStep {
+
+    void process(Video video, Path file) throws Exception;
+}
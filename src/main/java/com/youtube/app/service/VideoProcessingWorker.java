@@ -0,0 +1,207 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.VideoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives videos from PROCESSING to READY/FAILED. Each node polls the shared job table,
+ * claims only as many jobs as it has idle workers, and hands finished jobs to a flusher
+ * that writes their outcomes back in batches.
+ */
+@Service
+public class VideoProcessingWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoProcessingWorker.class);
+
+    @Autowired
+    private ProcessingQueueService processingQueueService;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private VideoStreamService videoStreamService;
+
+    @Autowired
+    private List<VideoProcessingStep> steps;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.processing.concurrency}")
+    private int concurrency;
+
+    @Value("${app.processing.lease-timeout}")
+    private Duration leaseTimeout;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final ConcurrentLinkedQueue<ProcessingQueueService.JobOutcome> outcomes = new ConcurrentLinkedQueue<>();
+    // Jobs leased to this node whose outcome is not yet written back; their leases are renewed
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+    private volatile boolean running;
+
+    private Timer claimTimer;
+    private Timer jobTimer;
+    private Counter succeeded;
+    private Counter failed;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(concurrency),
+            r -> {
+                Thread t = new Thread(r, "video-processing-" + threadIndex.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        );
+
+        claimTimer = Timer.builder("video.processing.claim")
+            .description("Time to claim a batch of jobs from the queue")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        jobTimer = Timer.builder("video.processing.job")
+            .description("Time spent running one processing job")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        succeeded = Counter.builder("video.processing.jobs").tag("outcome", "succeeded").register(meterRegistry);
+        failed = Counter.builder("video.processing.jobs").tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("video.processing.queue.depth", queueDepth, AtomicLong::get)
+            .description("Pending jobs across all nodes")
+            .register(meterRegistry);
+        Gauge.builder("video.processing.in.flight", inFlight, AtomicInteger::get)
+            .description("Jobs running on this node")
+            .register(meterRegistry);
+
+        running = true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.processing.poll-interval}")
+    public void poll() {
+        if (!running) {
+            return;
+        }
+
+        int idle = concurrency - inFlight.get();
+        if (idle <= 0) {
+            return;
+        }
+
+        List<ProcessingQueueService.ClaimedJob> claimed;
+        try {
+            claimed = claimTimer.recordCallable(() -> processingQueueService.claim(nodeId, idle));
+        } catch (Exception e) {
+            log.warn("Unable to claim processing jobs", e);
+            return;
+        }
+
+        for (ProcessingQueueService.ClaimedJob job : claimed) {
+            held.add(job.jobId());
+            inFlight.incrementAndGet();
+            executor.execute(() -> run(job));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.processing.flush-interval}")
+    public void flush() {
+        List<ProcessingQueueService.JobOutcome> batch = new ArrayList<>();
+        ProcessingQueueService.JobOutcome outcome;
+        while ((outcome = outcomes.poll()) != null) {
+            batch.add(outcome);
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            processingQueueService.applyOutcomes(batch);
+            batch.forEach(written -> held.remove(written.jobId()));
+        } catch (RuntimeException e) {
+            // Put them back; if this node dies instead, the lease expires and the jobs rerun
+            outcomes.addAll(batch);
+            log.warn("Unable to write {} processing outcomes", batch.size(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.processing.maintenance-interval}")
+    public void maintain() {
+        try {
+            // Renew before reaping, so this node never expires a lease it still holds
+            processingQueueService.renewLeases(nodeId, List.copyOf(held));
+            int released = processingQueueService.releaseExpiredLeases(leaseTimeout);
+            if (released > 0) {
+                log.info("Expired {} processing leases", released);
+            }
+            queueDepth.set(processingQueueService.pendingCount());
+        } catch (RuntimeException e) {
+            log.warn("Processing queue maintenance failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        flush();
+    }
+
+    private void run(ProcessingQueueService.ClaimedJob job) {
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            Video video = videoRepository.findById(job.videoId())
+                .orElseThrow(() -> new IllegalStateException("Video " + job.videoId() + " no longer exists"));
+            Path file = videoStreamService.resolvePath(video.getFilePath());
+
+            for (VideoProcessingStep step : steps) {
+                step.process(video, file);
+            }
+            succeeded.increment();
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            failed.increment();
+            log.warn("Processing attempt {} for video {} failed: {}", job.attempt(), job.videoId(), error);
+        } finally {
+            jobTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            outcomes.add(new ProcessingQueueService.JobOutcome(job.jobId(), nodeId, error));
+            inFlight.decrementAndGet();
+        }
+    }
+}
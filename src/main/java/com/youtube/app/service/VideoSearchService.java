@@ -0,0 +1,190 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.VideoRepository;
+import com.youtube.app.search.IndexedVideo;
+import com.youtube.app.search.InvertedIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps the in-process search index in step with the videos table. Changes are picked up
+ * by a keyset scan over {@code (updated_at, id)} from the last watermark, which also covers
+ * writes made by other nodes; the index and watermark are snapshotted to disk so a restart
+ * only replays what changed since the last snapshot.
+ */
+@Service
+public class VideoSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoSearchService.class);
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.search.snapshot-path}")
+    private String snapshotPath;
+
+    @Value("${app.search.batch-size}")
+    private int batchSize;
+
+    // Rows committed late by slow transactions can carry an older updated_at than the watermark
+    @Value("${app.search.lag-margin}")
+    private Duration lagMargin;
+
+    @Value("${app.search.max-window}")
+    private int maxWindow;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+    private LocalDateTime watermark = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private long watermarkId;
+    private boolean initialized;
+    private boolean changedSinceSnapshot;
+
+    private Timer searchTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        searchTimer = Timer.builder("video.search.query")
+            .description("Search index query latency")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder("video.search.documents", this, service -> service.index.size())
+            .description("Videos in the search index")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Ranks at most {@code max-window} hits, so deep pages cannot make the index hold a huge heap.
+     * Pages reaching past it are rejected with {@link IllegalArgumentException}.
+     */
+    public InvertedIndex.SearchHits search(String query, boolean matchAll, int page, int size) {
+        long end = ((long) page + 1) * size;
+        if (end > maxWindow) {
+            throw new IllegalArgumentException("Only the first " + maxWindow + " results can be paged through");
+        }
+        int offset = page * size;
+        return searchTimer.record(() -> index.search(query, matchAll, offset, size));
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval}")
+    public synchronized void refresh() {
+        if (!initialized) {
+            loadSnapshot();
+            initialized = true;
+        }
+
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            log.warn("Search index refresh failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.snapshot-interval}")
+    public synchronized void snapshot() {
+        if (!initialized || !changedSinceSnapshot) {
+            return;
+        }
+
+        Path target = Paths.get(snapshotPath);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeUTF(watermark.toString());
+                out.writeLong(watermarkId);
+                index.writeSnapshot(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changedSinceSnapshot = false;
+        } catch (IOException e) {
+            log.warn("Unable to write search snapshot to {}", target, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private void catchUp() {
+        LocalDateTime since = watermark.minus(lagMargin);
+        long afterId = 0;
+        int indexed = 0;
+
+        while (true) {
+            List<IndexedVideo> batch = videoRepository.findChangedSince(since, afterId, PageRequest.ofSize(batchSize));
+            for (IndexedVideo video : batch) {
+                boolean changed = video.status() == Video.VideoStatus.READY
+                    ? index.index(video.id(), video.title(), video.description())
+                    : index.remove(video.id());
+                if (changed) {
+                    indexed++;
+                }
+
+                since = video.updatedAt();
+                afterId = video.id();
+                if (since.isAfter(watermark) || (since.isEqual(watermark) && afterId > watermarkId)) {
+                    watermark = since;
+                    watermarkId = afterId;
+                }
+            }
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (indexed > 0) {
+            changedSinceSnapshot = true;
+            log.debug("Search index applied {} changes, watermark {}", indexed, watermark);
+        }
+    }
+
+    private void loadSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(path)) {
+            log.info("No search snapshot at {}, building index from the database", path);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            LocalDateTime snapshotWatermark = LocalDateTime.parse(in.readUTF());
+            long snapshotWatermarkId = in.readLong();
+            index = InvertedIndex.readSnapshot(in);
+            watermark = snapshotWatermark;
+            watermarkId = snapshotWatermarkId;
+            log.info("Loaded search snapshot with {} videos in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Discarding unreadable search snapshot {}", path, e);
+            index = new InvertedIndex();
+        }
+    }
+}
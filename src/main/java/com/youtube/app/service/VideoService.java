@@ -0,0 +1,174 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.VideoRepository;
+import com.youtube.app.repository.VideoSeekIndexRepository;
+import com.youtube.app.repository.projection.VideoSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Service
+@Transactional(readOnly = true)
+public class VideoService {
+    
+    // Upper bound for the first page of a newest-first listing; timestamp columns cannot hold LocalDateTime.MAX
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    @Autowired
+    private VideoRepository videoRepository;
+    
+    @Autowired
+    private ViewCountService viewCountService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private VideoBlobStore videoBlobStore;
+    
+    @Autowired
+    private VideoSeekIndexRepository videoSeekIndexRepository;
+    
+    public Video findReadyVideo(Long id) {
+        return videoRepository.findByIdAndStatus(id, Video.VideoStatus.READY)
+            .orElseThrow(() -> new RuntimeException("Video not found"));
+    }
+    
+    /**
+     * Loads summaries of READY videos by id, keeping the order of {@code ids}.
+     */
+    public List<VideoSummary> findReadyInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, VideoSummary> byId = new HashMap<>();
+        for (VideoSummary video : videoRepository.findSummaries(ids, Video.VideoStatus.READY)) {
+            byId.put(video.id(), video);
+        }
+        
+        List<VideoSummary> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            VideoSummary video = byId.get(id);
+            if (video != null) {
+                ordered.add(video);
+            }
+        }
+        return ordered;
+    }
+    
+    public VideoWindow listLatest(String cursor, int size) {
+        Map<String, Object> after = KeysetCursor.decode(cursor);
+        List<VideoSummary> rows = videoRepository.findLatestBefore(
+            Video.VideoStatus.READY,
+            (LocalDateTime) after.getOrDefault("createdAt", NEWEST),
+            (Long) after.getOrDefault("id", Long.MAX_VALUE),
+            PageRequest.ofSize(size + 1));
+        return toWindow(rows, size, last -> Map.of("createdAt", last.createdAt(), "id", last.id()));
+    }
+    
+    public VideoWindow listMostViewed(String cursor, int size) {
+        Map<String, Object> after = KeysetCursor.decode(cursor);
+        List<VideoSummary> rows = videoRepository.findMostViewedBefore(
+            Video.VideoStatus.READY,
+            (Long) after.getOrDefault("viewCount", Long.MAX_VALUE),
+            (Long) after.getOrDefault("id", Long.MAX_VALUE),
+            PageRequest.ofSize(size + 1));
+        return toWindow(rows, size, last -> Map.of("viewCount", last.viewCount(), "id", last.id()));
+    }
+    
+    public VideoWindow listByUploader(String username, String cursor, int size) {
+        Map<String, Object> after = KeysetCursor.decode(cursor);
+        List<VideoSummary> rows = videoRepository.findByUploaderBefore(
+            username,
+            Video.VideoStatus.READY,
+            (LocalDateTime) after.getOrDefault("createdAt", NEWEST),
+            (Long) after.getOrDefault("id", Long.MAX_VALUE),
+            PageRequest.ofSize(size + 1));
+        return toWindow(rows, size, last -> Map.of("createdAt", last.createdAt(), "id", last.id()));
+    }
+    
+    /**
+     * Throws unless the user owns the video, for checks that must come before work that cannot be undone.
+     */
+    public void checkOwner(Long id, Long userId) {
+        findOwnedVideo(id, userId);
+    }
+    
+    /**
+     * Points a video at a stored thumbnail; only its uploader may change it.
+     */
+    @Transactional
+    public Video updateThumbnail(Long id, Long userId, String thumbnailUrl) {
+        Video video = findOwnedVideo(id, userId);
+        video.setThumbnailUrl(thumbnailUrl);
+        return video;
+    }
+    
+    /**
+     * Marks a video DELETED and drops its reference to the stored file, which goes once no video uses it.
+     */
+    @Transactional
+    public void deleteVideo(Long id, Long userId) {
+        findOwnedVideo(id, userId);
+        // The update waits on processing's row lock, so the hash read after it is the one the video still holds
+        if (videoRepository.updateStatus(id, Video.VideoStatus.DELETED, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Video not found");
+        }
+        videoRepository.findContentHash(id).ifPresent(videoBlobStore::release);
+    }
+    
+    /**
+     * The keyframe at or before {@code seconds}, or null if the video has no seek index.
+     */
+    public SeekIndex.SeekPoint findSeekPoint(Long id, double seconds) {
+        findReadyVideo(id);
+        return videoSeekIndexRepository.findById(id)
+            .map(index -> SeekIndex.decode(index.getEntries()).find(Math.round(seconds * 1000)))
+            .orElse(null);
+    }
+    
+    public void recordView(Long id) {
+        viewCountService.recordView(id);
+        trendingService.recordView(id);
+    }
+    
+    public long getViewCount(Video video) {
+        return viewCountService.currentCount(video.getId(), video.getViewCount());
+    }
+    
+    public long getViewCount(VideoSummary video) {
+        return viewCountService.currentCount(video.id(), video.viewCount());
+    }
+    
+    private Video findOwnedVideo(Long id, Long userId) {
+        Video video = videoRepository.findById(id)
+            .filter(found -> found.getStatus() != Video.VideoStatus.DELETED)
+            .orElseThrow(() -> new RuntimeException("Video not found"));
+        if (!video.getUploader().getId().equals(userId)) {
+            throw new RuntimeException("Video not found");
+        }
+        return video;
+    }
+    
+    // One extra row is fetched to learn whether another page exists without counting
+    private VideoWindow toWindow(List<VideoSummary> rows, int size, Function<VideoSummary, Map<String, Object>> keys) {
+        if (rows.size() <= size) {
+            return new VideoWindow(rows, null);
+        }
+        
+        List<VideoSummary> page = rows.subList(0, size);
+        return new VideoWindow(page, KeysetCursor.encode(keys.apply(page.get(size - 1))));
+    }
+    
+    public record VideoWindow(List<VideoSummary> videos, String nextCursor) {}
+}
@@ -0,0 +1,221 @@
+package com.youtube.app.service;
+
+import com.youtube.app.model.Video;
+import com.youtube.app.repository.VideoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class VideoStreamService {
+
+    // Anything beyond this is almost certainly a scanner, not a player
+    private static final int MAX_RANGES = 16;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private VideoChunkCache videoChunkCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.video.storage-dir}")
+    private String storageDir;
+
+    private Counter sendfileBytes;
+    private Counter cachedBytes;
+    private Counter copiedBytes;
+
+    @PostConstruct
+    public void registerMetrics() {
+        sendfileBytes = streamedCounter("sendfile");
+        cachedBytes = streamedCounter("cache");
+        copiedBytes = streamedCounter("copy");
+    }
+
+    // Only the lookup is transactional: a transfer can last minutes and must not hold a connection
+    @Transactional(readOnly = true)
+    public StreamableVideo findStreamableVideo(Long id) {
+        Video video = videoRepository.findByIdAndStatus(id, Video.VideoStatus.READY)
+            .orElseThrow(() -> new RuntimeException("Video not found"));
+
+        Path path = resolvePath(video.getFilePath());
+        long length = video.getFileSize() != null ? video.getFileSize() : sizeOf(path);
+        long lastModified = video.getUpdatedAt() != null
+            ? video.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : 0L;
+        String etag = "\"" + video.getId() + "-" + length + "-" + lastModified + "\"";
+
+        return new StreamableVideo(video.getId(), path, length, lastModified, etag);
+    }
+
+    public Path resolvePath(String filePath) {
+        return Paths.get(storageDir).resolve(filePath).normalize();
+    }
+
+    /**
+     * Parses a {@code Range: bytes=...} header against a resource of the given length.
+     * Returns {@code null} when the header is absent or malformed (serve the full body),
+     * and an empty list when it is well-formed but unsatisfiable (416).
+     * Overlapping and adjacent ranges are coalesced.
+     */
+    public List<ByteRange> parseRanges(String header, long length) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+
+        String[] specs = header.substring(6).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            String s = spec.trim();
+            int dash = s.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+
+            try {
+                long start;
+                long end;
+                if (dash == 0) {
+                    long suffix = Long.parseLong(s.substring(1));
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                } else {
+                    start = Long.parseLong(s.substring(0, dash));
+                    if (dash == s.length() - 1) {
+                        end = length - 1;
+                    } else {
+                        end = Long.parseLong(s.substring(dash + 1));
+                        if (end < start) {
+                            return null;
+                        }
+                        end = Math.min(end, length - 1);
+                    }
+                }
+
+                if (start < length) {
+                    ranges.add(new ByteRange(start, end));
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return coalesce(ranges);
+    }
+
+    /**
+     * Counts a range handed to the connector's sendfile, which writes it after the request returns.
+     */
+    public void recordSendfile(ByteRange range) {
+        sendfileBytes.increment(range.length());
+    }
+
+    /**
+     * Whether the range starts inside the cached prefix, and so is better served by {@link #transfer}
+     * than handed to sendfile. The connector cannot append a sendfile region to bytes the servlet
+     * already wrote, so such a range is copied past the prefix as well.
+     */
+    public boolean startsInCache(ByteRange range) {
+        return range.start() < videoChunkCache.prefix();
+    }
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} to the given stream. The opening
+     * bytes of a file come from the chunk cache; the rest goes through
+     * {@link FileChannel#transferTo}, so the kernel moves the data where the target allows it.
+     */
+    public void transfer(Path path, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long end = position + count;
+            long cachedEnd = Math.min(end, videoChunkCache.prefix());
+            if (cachedEnd > position) {
+                videoChunkCache.transfer(path, channel, position, cachedEnd, out);
+                cachedBytes.increment(cachedEnd - position);
+                position = cachedEnd;
+            }
+            copiedBytes.increment(end - position);
+
+            WritableByteChannel target = Channels.newChannel(out);
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new IOException("Unexpected end of file: " + path);
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+
+        ranges.sort(Comparator.comparingLong(ByteRange::start));
+        List<ByteRange> merged = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            ByteRange next = ranges.get(i);
+            if (next.start() <= current.end() + 1) {
+                current = new ByteRange(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private Counter streamedCounter(String delivery) {
+        return Counter.builder("video.stream.bytes")
+            .description("Video bytes handed to client connections")
+            .baseUnit("bytes")
+            .tag("delivery", delivery)
+            .register(meterRegistry);
+    }
+
+    private long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Video file not available", e);
+        }
+    }
+
+    public record StreamableVideo(Long id, Path path, long length, long lastModified, String etag) {}
+
+    public record ByteRange(long start, long end) {
+        public long length() {
+            return end - start + 1;
+        }
+    }
+}
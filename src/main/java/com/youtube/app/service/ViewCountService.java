@@ -0,0 +1,110 @@
+package com.youtube.app.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Absorbs view events in memory and writes them to {@code videos.view_count} as
+ * periodic batched increments, so a popular video costs one UPDATE per flush
+ * instead of one row lock per view. Each flush also rolls its deltas up into the
+ * channel totals through {@link ChannelStatsService}, in the same transaction.
+ */
+@Service
+public class ViewCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCountService.class);
+
+    private static final String INCREMENT_SQL = "UPDATE videos SET view_count = view_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ChannelStatsService channelStatsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final DeltaBuffer pending = new DeltaBuffer();
+
+    // Deltas taken out of the adders but not yet committed still count towards reads
+    private volatile Map<Long, Long> flushing = Map.of();
+
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        flushTimer = Timer.builder("video.views.flush")
+            .description("Time to write accumulated view deltas")
+            .register(meterRegistry);
+        Gauge.builder("video.views.pending.videos", pending, DeltaBuffer::size)
+            .description("Videos with view deltas not yet written")
+            .register(meterRegistry);
+    }
+
+    public void recordView(Long videoId) {
+        pending.add(videoId, 1);
+    }
+
+    public long pendingDelta(Long videoId) {
+        return pending.pending(videoId) + flushing.getOrDefault(videoId, 0L);
+    }
+
+    public long currentCount(Long videoId, Long persistedCount) {
+        return (persistedCount != null ? persistedCount : 0L) + pendingDelta(videoId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.views.flush-interval}")
+    public synchronized void flush() {
+        TreeMap<Long, Long> deltas = new TreeMap<>(pending.drain());
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        // Ascending id order keeps concurrent flushers on different nodes from deadlocking
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            batch.add(new Object[] { entry.getValue(), entry.getKey() });
+        }
+
+        flushing = deltas;
+        try {
+            // One transaction, so a failed flush can be retried in full without counting anything twice
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INCREMENT_SQL, batch);
+                // Same transaction, so the channel total can never disagree with its videos
+                channelStatsService.recordViews(deltas);
+            }));
+        } catch (RuntimeException e) {
+            pending.restore(deltas);
+            log.warn("Unable to flush view counts for {} videos, will retry", deltas.size(), e);
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        // Anything still parked for eviction gets one last pass
+        flush();
+    }
+}
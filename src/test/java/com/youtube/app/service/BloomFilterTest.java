@@ -0,0 +1,79 @@
+package com.youtube.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int USERS = 10_000;
+
+    @Test
+    void neverMissesAStringThatWasPut() {
+        BloomFilter filter = BloomFilter.create(USERS, 0.01);
+        for (int i = 0; i < USERS; i++) {
+            filter.put("user" + i);
+        }
+
+        for (int i = 0; i < USERS; i++) {
+            assertTrue(filter.mightContain("user" + i), "user" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTargetAtCapacity() {
+        BloomFilter filter = BloomFilter.create(USERS, 0.01);
+        for (int i = 0; i < USERS; i++) {
+            filter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1% target; twice that leaves room for hashing noise without hiding a broken filter
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives");
+        assertTrue(filter.expectedFpp() < 0.02, "expected fpp " + filter.expectedFpp());
+    }
+
+    @Test
+    void repeatedPutSetsNoNewBits() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+
+        assertTrue(filter.put("alice"));
+        assertFalse(filter.put("alice"));
+        assertEquals(1, filter.approximateCount());
+    }
+
+    @Test
+    void expectedFppClimbsPastCapacity() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put("user" + i);
+        }
+
+        assertTrue(filter.expectedFpp() > 0.01, "expected fpp " + filter.expectedFpp());
+    }
+
+    @Test
+    void rejectsRatesOutsideTheOpenUnitInterval() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+
+    @Test
+    void emptyStringAndNonAsciiAreDistinctKeys() {
+        BloomFilter filter = BloomFilter.create(100, 0.001);
+        filter.put("");
+        filter.put("zoë");
+
+        assertTrue(filter.mightContain(""));
+        assertTrue(filter.mightContain("zoë"));
+        assertFalse(filter.mightContain("zoe"));
+    }
+}
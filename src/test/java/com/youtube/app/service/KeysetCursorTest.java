@@ -0,0 +1,60 @@
+package com.youtube.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsEverySortKeyInOrder() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("viewCount", 9_007_199_254_740_993L);
+        keys.put("createdAt", LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789));
+        keys.put("id", 42L);
+
+        Map<String, Object> decoded = KeysetCursor.decode(KeysetCursor.encode(keys));
+
+        assertEquals(keys, decoded);
+        assertEquals(keys.keySet().stream().toList(), decoded.keySet().stream().toList());
+    }
+
+    @Test
+    void tokensAreUrlSafe() {
+        String token = KeysetCursor.encode(Map.of("createdAt", LocalDateTime.of(2024, 1, 1, 0, 0, 0, 999_000_000)));
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void missingTokenIsTheFirstPage() {
+        assertTrue(KeysetCursor.decode(null).isEmpty());
+        assertTrue(KeysetCursor.decode("  ").isEmpty());
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        assertInvalid("not base64!");
+        assertInvalid(raw("id"));
+        assertInvalid(raw("id=abc"));
+        assertInvalid(raw("createdAt=yesterday"));
+        assertInvalid(raw("uploader=1"));
+    }
+
+    private static void assertInvalid(String token) {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> KeysetCursor.decode(token));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+
+    private static String raw(String content) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,189 @@
+package com.youtube.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link Mp4Movie} over synthetic {@code moov} boxes: one video track whose six samples sit
+ * two to a chunk, 100 bytes each, 500 ms apart, and optionally an audio track with 64-bit offsets.
+ */
+class Mp4MovieTest {
+
+    private static final long[] VIDEO_CHUNKS = { 1_000, 2_000, 3_000 };
+
+    @Test
+    void shiftsOnlyOffsetsInsideTheRangeInBothTableWidths() {
+        long[] audioChunks = { 1_500, 5_000_000_000L };
+        Mp4Movie movie = Mp4Movie.parse(moov(videoTrack(VIDEO_CHUNKS, new long[] { 1, 4 }, true), audioTrack(audioChunks)));
+
+        assertTrue(movie.shiftChunkOffsets(1_500, 4_000, 100));
+
+        assertArrayEquals(new long[] { 1_000, 2_100, 3_100 }, offsets(movie.bytes(), "stco"));
+        assertArrayEquals(new long[] { 1_600, 5_000_000_000L }, offsets(movie.bytes(), "co64"));
+    }
+
+    @Test
+    void movesLargeOffsetsPastFourGigabytesInCo64() {
+        Mp4Movie movie = Mp4Movie.parse(moov(audioTrack(new long[] { 0xFFFF_FF00L })));
+
+        assertTrue(movie.shiftChunkOffsets(0, Long.MAX_VALUE, 0x200));
+
+        assertArrayEquals(new long[] { 0x1_0000_0100L }, offsets(movie.bytes(), "co64"));
+    }
+
+    @Test
+    void refusesAShiftThatWouldOverflowStcoAndLeavesTheBoxUntouched() {
+        long[] chunks = { 1_000, 0xFFFF_FF00L };
+        Mp4Movie movie = Mp4Movie.parse(moov(videoTrack(chunks, null, false), audioTrack(new long[] { 2_000 })));
+        byte[] before = movie.bytes().clone();
+
+        assertFalse(movie.shiftChunkOffsets(0, Long.MAX_VALUE, 0x200));
+
+        assertArrayEquals(before, movie.bytes());
+    }
+
+    @Test
+    void ignoresOffsetsThatWouldOverflowWhenTheyLieOutsideTheRange() {
+        long[] chunks = { 1_000, 0xFFFF_FF00L };
+        Mp4Movie movie = Mp4Movie.parse(moov(videoTrack(chunks, null, false)));
+
+        assertTrue(movie.shiftChunkOffsets(0, 2_000, 0x200));
+
+        assertArrayEquals(new long[] { 1_512, 0xFFFF_FF00L }, offsets(movie.bytes(), "stco"));
+    }
+
+    @Test
+    void keyframesFollowStssAndSurviveEncoding() {
+        // ctts reorders presentation only; seek points stay on decode times
+        Mp4Movie movie = Mp4Movie.parse(moov(videoTrack(VIDEO_CHUNKS, new long[] { 1, 4 }, true)));
+
+        SeekIndex index = movie.keyframes();
+        SeekIndex decoded = SeekIndex.decode(index.encode());
+
+        assertEquals(2, decoded.size());
+        assertEquals(new SeekIndex.SeekPoint(0, 1_000), decoded.find(1_499));
+        assertEquals(new SeekIndex.SeekPoint(1_500, 2_100), decoded.find(1_500));
+        assertEquals(new SeekIndex.SeekPoint(1_500, 2_100), decoded.find(60_000));
+        assertEquals(3_000, movie.durationMillis());
+    }
+
+    @Test
+    void everySampleIsAKeyframeWithoutStss() {
+        SeekIndex index = SeekIndex.decode(Mp4Movie.parse(moov(videoTrack(VIDEO_CHUNKS, null, false))).keyframes().encode());
+
+        assertEquals(6, index.size());
+        assertEquals(new SeekIndex.SeekPoint(500, 1_100), index.find(999));
+        assertEquals(new SeekIndex.SeekPoint(2_500, 3_100), index.find(2_500));
+    }
+
+    @Test
+    void trackWithoutVideoHandlerHasNoKeyframes() {
+        assertEquals(0, Mp4Movie.parse(moov(audioTrack(new long[] { 1_000 }))).keyframes().size());
+    }
+
+    private static byte[] moov(byte[]... tracks) {
+        // Version 0 mvhd: timescale 1000, duration 3000
+        byte[] mvhd = box("mvhd", ints(0, 0, 0, 1_000, 3_000, 0));
+        byte[][] children = new byte[tracks.length + 1][];
+        children[0] = mvhd;
+        System.arraycopy(tracks, 0, children, 1, tracks.length);
+        return box("moov", children);
+    }
+
+    private static byte[] videoTrack(long[] chunks, long[] syncSamples, boolean withCtts) {
+        ByteArrayOutputStream stbl = new ByteArrayOutputStream();
+        stbl.writeBytes(box("stts", ints(0, 1, 6, 500)));
+        if (withCtts) {
+            stbl.writeBytes(box("ctts", ints(0, 2, 1, 1_000, 5, 0)));
+        }
+        stbl.writeBytes(box("stsc", ints(0, 1, 1, 2, 1)));
+        stbl.writeBytes(box("stsz", ints(0, 100, 6)));
+        if (syncSamples != null) {
+            stbl.writeBytes(box("stss", table(syncSamples, 4)));
+        }
+        stbl.writeBytes(box("stco", table(chunks, 4)));
+        return track("vide", stbl.toByteArray());
+    }
+
+    private static byte[] audioTrack(long[] chunks) {
+        byte[] stbl = concat(
+            box("stts", ints(0, 1, chunks.length, 1_024)),
+            box("stsc", ints(0, 1, 1, 1, 1)),
+            box("stsz", ints(0, 10, chunks.length)),
+            box("co64", table(chunks, 8))
+        );
+        return track("soun", stbl);
+    }
+
+    private static byte[] track(String handler, byte[] stblContent) {
+        byte[] mdhd = box("mdhd", ints(0, 0, 0, 1_000, 3_000, 0));
+        byte[] hdlr = box("hdlr", concat(ints(0, 0), handler.getBytes(StandardCharsets.ISO_8859_1), ints(0, 0, 0)));
+        byte[] minf = box("minf", box("stbl", stblContent));
+        return box("trak", box("mdia", mdhd, hdlr, minf));
+    }
+
+    // Full-box table: version/flags, entry count, then one entry per value
+    private static byte[] table(long[] values, int width) {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + values.length * width);
+        buffer.putInt(0).putInt(values.length);
+        for (long value : values) {
+            if (width == 8) {
+                buffer.putLong(value);
+            } else {
+                buffer.putInt((int) value);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static byte[] box(String type, byte[]... content) {
+        byte[] body = concat(content);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + body.length);
+        buffer.putInt(8 + body.length).put(type.getBytes(StandardCharsets.ISO_8859_1)).put(body);
+        return buffer.array();
+    }
+
+    private static byte[] ints(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4);
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    // Reads back the first table of the given type; each type occurs once in these boxes
+    private static long[] offsets(byte[] moov, String type) {
+        byte[] needle = type.getBytes(StandardCharsets.ISO_8859_1);
+        for (int at = 0; at + 4 <= moov.length; at++) {
+            if (Arrays.equals(moov, at, at + 4, needle, 0, 4)) {
+                ByteBuffer buffer = ByteBuffer.wrap(moov);
+                int count = buffer.getInt(at + 8);
+                long[] values = new long[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = type.equals("co64")
+                        ? buffer.getLong(at + 12 + i * 8)
+                        : buffer.getInt(at + 12 + i * 4) & 0xFFFF_FFFFL;
+                }
+                return values;
+            }
+        }
+        throw new AssertionError("No " + type + " box");
+    }
+}
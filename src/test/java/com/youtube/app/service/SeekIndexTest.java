@@ -0,0 +1,51 @@
+package com.youtube.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SeekIndexTest {
+
+    @Test
+    void roundTripsDeltasThatNeedSeveralVarintBytes() {
+        SeekIndex.Builder builder = new SeekIndex.Builder();
+        builder.add(0, 48);
+        builder.add(127, 128);
+        builder.add(16_384, 1L << 32);
+        builder.add(7_200_000, 6_000_000_000L);
+        SeekIndex index = builder.build();
+
+        SeekIndex decoded = SeekIndex.decode(index.encode());
+
+        assertEquals(4, decoded.size());
+        assertEquals(new SeekIndex.SeekPoint(0, 48), decoded.find(0));
+        assertEquals(new SeekIndex.SeekPoint(127, 128), decoded.find(16_383));
+        assertEquals(new SeekIndex.SeekPoint(16_384, 1L << 32), decoded.find(16_384));
+        assertEquals(new SeekIndex.SeekPoint(7_200_000, 6_000_000_000L), decoded.find(Long.MAX_VALUE));
+    }
+
+    @Test
+    void emptyIndexRoundTripsAndFindsNothing() {
+        SeekIndex decoded = SeekIndex.decode(new SeekIndex.Builder().build().encode());
+
+        assertEquals(0, decoded.size());
+        assertNull(decoded.find(1_000));
+    }
+
+    @Test
+    void dropsEntriesThatStepBackAndSeeksToTheFirstOfEqualTimes() {
+        SeekIndex.Builder builder = new SeekIndex.Builder();
+        builder.add(1_000, 500);
+        // B-frame decode order stepping back in time, then in offset
+        builder.add(900, 600);
+        builder.add(1_100, 400);
+        builder.add(2_000, 700);
+        builder.add(2_000, 800);
+        SeekIndex decoded = SeekIndex.decode(builder.build().encode());
+
+        assertEquals(3, decoded.size());
+        assertEquals(new SeekIndex.SeekPoint(1_000, 500), decoded.find(0));
+        assertEquals(new SeekIndex.SeekPoint(2_000, 700), decoded.find(2_500));
+    }
+}
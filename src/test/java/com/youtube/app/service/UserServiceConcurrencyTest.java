@@ -0,0 +1,87 @@
+package com.youtube.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Signups racing for one username must be arbitrated by the unique constraint alone:
+ * exactly one wins and every other caller gets a {@link UserService.DuplicateUserException}.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:users;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    // Cheap hashes, and room to queue them all, so hashing never sheds a racer
+    "app.auth.bcrypt-strength=4",
+    "app.auth.hashing.max-wait=30s",
+    "app.video.storage-dir=target/test-videos",
+    "app.video.chunk-cache.size=0",
+    "logging.level.com.youtube.app=INFO",
+    "logging.level.org.springframework.web=INFO"
+})
+class UserServiceConcurrencyTest {
+
+    private static final int SIGNUPS = 8;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void concurrentSignupsForOneUsernameHaveExactlyOneWinner() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SIGNUPS);
+        CountDownLatch ready = new CountDownLatch(SIGNUPS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < SIGNUPS; i++) {
+                // Distinct emails, so the username is the only thing they can collide on
+                String email = "racer" + i + "@example.com";
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    return userService.createUser("racer", email, "secret12");
+                }));
+            }
+            assertTrue(ready.await(10, TimeUnit.SECONDS), "signup threads did not start");
+            go.countDown();
+
+            int created = 0;
+            int duplicates = 0;
+            for (Future<?> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                    created++;
+                } catch (java.util.concurrent.ExecutionException e) {
+                    if (e.getCause() instanceof UserService.DuplicateUserException duplicate) {
+                        assertEquals("username", duplicate.getField());
+                        duplicates++;
+                    } else {
+                        fail("Unexpected signup failure", e.getCause());
+                    }
+                }
+            }
+
+            assertEquals(1, created);
+            assertEquals(SIGNUPS - 1, duplicates);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.youtube.app.service;
+
+import com.youtube.app.service.VideoStreamService.ByteRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Range header parsing against a 1000-byte resource. The parser touches no collaborators,
+ * so the service is used without a Spring context.
+ */
+class VideoStreamServiceTest {
+
+    private static final long LENGTH = 1_000;
+
+    private final VideoStreamService service = new VideoStreamService();
+
+    @Test
+    void absentOrForeignUnitServesTheFullBody() {
+        assertNull(service.parseRanges(null, LENGTH));
+        assertNull(service.parseRanges("items=0-9", LENGTH));
+    }
+
+    @Test
+    void malformedSpecsServeTheFullBody() {
+        assertNull(service.parseRanges("bytes=abc", LENGTH));
+        assertNull(service.parseRanges("bytes=1-x", LENGTH));
+        assertNull(service.parseRanges("bytes=500-100", LENGTH));
+        assertNull(service.parseRanges("bytes=0-1,2-3,4-5,6-7,8-9,10-11,12-13,14-15,16-17,18-19,20-21,22-23,24-25,26-27,28-29,30-31,32-33", LENGTH));
+    }
+
+    @Test
+    void boundedOpenAndSuffixRanges() {
+        assertEquals(List.of(new ByteRange(0, 99)), service.parseRanges("bytes=0-99", LENGTH));
+        assertEquals(List.of(new ByteRange(500, 999)), service.parseRanges("bytes=500-", LENGTH));
+        assertEquals(List.of(new ByteRange(900, 999)), service.parseRanges("bytes=-100", LENGTH));
+    }
+
+    @Test
+    void rangesRunningPastTheEndAreClamped() {
+        assertEquals(List.of(new ByteRange(990, 999)), service.parseRanges("bytes=990-5000", LENGTH));
+        assertEquals(List.of(new ByteRange(0, 999)), service.parseRanges("bytes=-5000", LENGTH));
+    }
+
+    @Test
+    void unsatisfiableRangesLeaveAnEmptyList() {
+        assertTrue(service.parseRanges("bytes=1000-", LENGTH).isEmpty());
+        assertTrue(service.parseRanges("bytes=-0", LENGTH).isEmpty());
+        assertEquals(List.of(new ByteRange(0, 0)), service.parseRanges("bytes=1000-1100, 0-0", LENGTH));
+    }
+
+    @Test
+    void overlappingAndAdjacentRangesAreSortedAndCoalesced() {
+        assertEquals(
+            List.of(new ByteRange(0, 30), new ByteRange(100, 200)),
+            service.parseRanges("bytes=100-200, 21-30, 0-10, 5-20", LENGTH)
+        );
+    }
+}